@@ -36,6 +36,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
 
 import fr.neamar.kiss.BuildConfig;
 import fr.neamar.kiss.broadcast.ProfileChangedHandler;
@@ -56,7 +57,10 @@ import fr.neamar.kiss.db.ValuedHistoryRecord;
 import fr.neamar.kiss.pojo.AppPojo;
 import fr.neamar.kiss.pojo.NameComparator;
 import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.ScoredPojo;
 import fr.neamar.kiss.pojo.ShortcutPojo;
+import fr.neamar.kiss.searcher.SearchQuery;
+import fr.neamar.kiss.searcher.SearchResultCache;
 import fr.neamar.kiss.searcher.Searcher;
 import fr.neamar.kiss.utils.PackageManagerUtils;
 import fr.neamar.kiss.utils.ShortcutUtil;
@@ -76,17 +80,35 @@ public class DataHandler extends BroadcastReceiver
     private static final List<String> PROVIDER_NAMES = Arrays.asList(
             "app", "contacts", "shortcuts"
     );
+    /**
+     * Providers queried last in a search, so that results of the others can be displayed before
+     * they are done, see {@link Searcher#publishPartialResults()}
+     */
+    private static final List<String> SLOW_PROVIDER_NAMES = Collections.singletonList("contacts");
 
     /**
      * Key for a preference that holds a String set of apps which are excluded from showing shortcuts.
      * Each string in the set is the packageName of an app which may not show shortcuts.
      */
     public final static String PREF_KEY_EXCLUDED_SHORTCUT_APPS = "excluded-shortcut-apps";
+    /**
+     * Preferences changing which pojos match a query or how they are ranked, see {@link #invalidateSearchCandidates()}.
+     * Toggles of providers ("enable-...") are matched by prefix
+     */
+    private static final Set<String> SEARCH_PREF_KEYS = new HashSet<>(Arrays.asList(
+            "excluded-apps", "excluded-apps-from-history", PREF_KEY_EXCLUDED_SHORTCUT_APPS,
+            "exclude-favorites-apps", "favorite-apps-list", "use-fuzzy-score-v2", "number-of-display-elements"
+    ));
 
     private TagsHandler tagsHandler;
     final private Context context;
     private String currentQuery;
     private final Map<String, ProviderEntry> providers = new HashMap<>();
+    /**
+     * Provider of each id scheme ("app://", "contact://"...), learned from {@link IProvider#mayFindById(String)}.
+     * Cleared whenever providers change
+     */
+    private final Map<String, ProviderEntry> providersByScheme = new ConcurrentHashMap<>();
     public boolean allProvidersHaveLoaded = false;
     private long start;
 
@@ -95,6 +117,28 @@ public class DataHandler extends BroadcastReceiver
      * 키: 소문자 태그명, 값: 해당 태그가 포함된 Pojo 목록
      */
     private final Map<String, List<Pojo>> tagCache = new ConcurrentHashMap<>();
+    private final SearchResultCache searchResultCache = new SearchResultCache();
+    private final ReloadScheduler reloadScheduler = new ReloadScheduler(new Handler(Looper.getMainLooper())::postDelayed, new ReloadScheduler.Providers() {
+        @Override
+        public void reload(String name) {
+            Log.v(TAG, "Reloading " + name + ", " + DataHandler.this.reloadScheduler);
+            if ("app".equals(name)) {
+                // Invalidate tag cache when apps are reloaded
+                invalidateTagCache();
+                markDataUpdated(); // 데이터 변경 표시
+            }
+            ProviderEntry entry = providers.get(name);
+            if (entry != null && entry.provider != null) {
+                entry.provider.reload();
+            }
+        }
+
+        @Override
+        public boolean isReloading(String name) {
+            ProviderEntry entry = providers.get(name);
+            return entry != null && entry.provider instanceof Provider && ((Provider<?>) entry.provider).isLoading();
+        }
+    });
     
     // 스마트 업데이트를 위한 상태 추적
     private volatile long lastDataUpdateTime = System.currentTimeMillis();
@@ -165,6 +209,10 @@ public class DataHandler extends BroadcastReceiver
 
     @Override
     public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+        if (key == null || key.startsWith("enable-") || SEARCH_PREF_KEYS.contains(key)) {
+            invalidateSearchCandidates();
+        }
+
         if (key != null && key.startsWith("enable-")) {
             String providerName = key.substring(7);
             if (PROVIDER_NAMES.contains(providerName)) {
@@ -297,6 +345,7 @@ public class DataHandler extends BroadcastReceiver
 
         // Add empty provider object to list of providers
         this.providers.put(name, entry);
+        this.providersByScheme.clear();
     }
 
     /**
@@ -323,6 +372,7 @@ public class DataHandler extends BroadcastReceiver
 
         // Remove provider from list
         this.providers.remove(name);
+        this.providersByScheme.clear();
     }
 
     /**
@@ -372,22 +422,106 @@ public class DataHandler extends BroadcastReceiver
         this.handleProviderLoaded();
     }
 
+    /**
+     * Read the settings of a search once for all providers
+     *
+     * @param query query as typed, trimmed
+     */
+    public SearchQuery createSearchQuery(String query) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        return SearchQuery.fromPreferences(prefs, query, getExcludedFavorites());
+    }
+
     /**
      * Get records for this query.
      *
-     * @param query    query to run
-     * @param searcher the searcher currently running
+     * @param searchQuery query to run, see {@link #createSearchQuery(String)}
+     * @param searcher    the searcher currently running
      */
-    public void requestResults(String query, Searcher searcher) {
-        currentQuery = query;
-        for (ProviderEntry entry : this.providers.values()) {
-            if (searcher.isCancelled())
-                break;
-            if (entry.provider == null)
+    public void requestResults(SearchQuery searchQuery, Searcher searcher) {
+        currentQuery = searchQuery.text;
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        if (prefs.getBoolean("progressive-search", false)) {
+            searcher.setPartialResultsBudget(getProgressiveSearchBudget(prefs));
+        }
+
+        // fast providers first, their results are displayed while slow providers run
+        List<IProvider<?>> fastProviders = new ArrayList<>(this.providers.size());
+        List<IProvider<?>> slowProviders = new ArrayList<>(SLOW_PROVIDER_NAMES.size());
+        for (Map.Entry<String, ProviderEntry> entry : this.providers.entrySet()) {
+            if (entry.getValue().provider == null)
                 continue;
+            if (SLOW_PROVIDER_NAMES.contains(entry.getKey())) {
+                slowProviders.add(entry.getValue().provider);
+            } else {
+                fastProviders.add(entry.getValue().provider);
+            }
+        }
+
+        if (prefs.getBoolean("parallel-search", false)) {
+            requestResultsInParallel(fastProviders, slowProviders, searchQuery, searcher);
+            return;
+        }
+
+        for (IProvider<?> provider : fastProviders) {
+            if (searcher.isCancelled())
+                return;
             // Retrieve results for query:
-            entry.provider.requestResults(query, searcher);
+            provider.requestResults(searchQuery, searcher);
+        }
+        searcher.publishPartialResults();
+        for (IProvider<?> provider : slowProviders) {
+            if (searcher.isCancelled())
+                return;
+            provider.requestResults(searchQuery, searcher);
+        }
+    }
+
+    /**
+     * @return time in ms after which the first results of a search are displayed
+     */
+    private static long getProgressiveSearchBudget(SharedPreferences prefs) {
+        try {
+            return Math.max(0, Long.parseLong(prefs.getString("progressive-search-budget", "16")));
+        } catch (NumberFormatException e) {
+            return 16;
+        }
+    }
+
+    /**
+     * Get records for this query, with all providers running concurrently on {@link Searcher#SEARCH_POOL}.
+     * Returns once every provider is done.
+     *
+     * @param fastProviders providers whose results can be displayed before slow providers are done
+     * @param slowProviders providers queried last
+     * @param query         query to run
+     * @param searcher      the searcher currently running, must accept results from multiple threads
+     */
+    private void requestResultsInParallel(List<IProvider<?>> fastProviders, List<IProvider<?>> slowProviders, SearchQuery query, Searcher searcher) {
+        List<ForkJoinTask<?>> fastTasks = submitRequests(fastProviders, query, searcher);
+        List<ForkJoinTask<?>> slowTasks = submitRequests(slowProviders, query, searcher);
+
+        // Wait for all providers, so no result is added once the searcher starts ranking
+        for (ForkJoinTask<?> task : fastTasks) {
+            task.join();
+        }
+        searcher.publishPartialResults();
+        for (ForkJoinTask<?> task : slowTasks) {
+            task.join();
+        }
+    }
+
+    private static List<ForkJoinTask<?>> submitRequests(List<IProvider<?>> providers, SearchQuery query, Searcher searcher) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(providers.size());
+        for (IProvider<?> provider : providers) {
+            tasks.add(Searcher.SEARCH_POOL.submit(() -> {
+                // Providers that did not start yet are skipped once the search is cancelled
+                if (!searcher.isCancelled()) {
+                    provider.requestResults(query, searcher);
+                }
+            }));
         }
+        return tasks;
     }
 
     /**
@@ -502,6 +636,26 @@ public class DataHandler extends BroadcastReceiver
         }
     }
 
+    /**
+     * Make providers forget matches of previous queries, so the next search scans all pojos again.
+     * Needs to be called whenever searchable data of existing pojos is modified in place (tags, exclusions, ...)
+     */
+    public void invalidateSearchCandidates() {
+        searchResultCache.invalidate();
+        for (ProviderEntry entry : this.providers.values()) {
+            if (entry.provider instanceof Provider) {
+                ((Provider<?>) entry.provider).invalidateCandidates();
+            }
+        }
+    }
+
+    /**
+     * Ranked results of the last queries, invalidated whenever searchable data changes
+     */
+    public SearchResultCache getSearchResultCache() {
+        return searchResultCache;
+    }
+
     /**
      * 태그 캐시 상태 정보
      */
@@ -543,12 +697,12 @@ public class DataHandler extends BroadcastReceiver
      * @param context            android context
      * @param itemCount          max number of items to retrieve, total number may be less (search or calls are not returned for instance)
      * @param itemsToExcludeById Items to exclude from history by their id
-     * @return pojos in recent history
+     * @return pojos in recent history, scored by their position in history
      */
-    public List<Pojo> getHistory(Context context, int itemCount, Set<String> itemsToExcludeById) {
+    public List<ScoredPojo> getHistory(Context context, int itemCount, Set<String> itemsToExcludeById) {
         // Pre-allocate array slots that are likely to be used based on the current maximum item
         // count
-        List<Pojo> history = new ArrayList<>(Math.min(itemCount, 256));
+        List<ScoredPojo> history = new ArrayList<>(Math.min(itemCount, 256));
 
         // Max sure that we get enough items, regardless of how many may be excluded
         int extendedItemCount = itemCount + itemsToExcludeById.size();
@@ -572,15 +726,15 @@ public class DataHandler extends BroadcastReceiver
             }
 
             if (historyMode == HistoryMode.ALPHABETICALLY) {
-                pojo.relevance = 0;
+                history.add(new ScoredPojo(pojo, 0));
             } else {
-                pojo.relevance = size - i;
+                history.add(new ScoredPojo(pojo, size - i));
             }
-            history.add(pojo);
         }
 
         if (historyMode == HistoryMode.ALPHABETICALLY) {
-            Collections.sort(history, new NameComparator());
+            NameComparator nameComparator = new NameComparator();
+            Collections.sort(history, (lhs, rhs) -> nameComparator.compare(lhs.pojo, rhs.pojo));
         }
 
         // return only needed items
@@ -588,17 +742,19 @@ public class DataHandler extends BroadcastReceiver
     }
 
     /**
-     * Apply relevance from history to given pojos.
+     * Score given pojos by their relevance in history.
      *
      * @param pojos       which needs to have relevance set
      * @param historyMode
+     * @return hits for given pojos, in same order
      */
-    public void applyRelevanceFromHistory(List<? extends Pojo> pojos, HistoryMode historyMode) {
+    public List<ScoredPojo> applyRelevanceFromHistory(List<? extends Pojo> pojos, HistoryMode historyMode) {
+        List<ScoredPojo> hits = new ArrayList<>(pojos.size());
         if (HistoryMode.ALPHABETICALLY == historyMode) {
             // "alphabetically" is special case because relevance needs to be set for all pojos instead of these from history.
             // This is done by setting all relevance to zero which results in order by name from used comparator.
             for (Pojo pojo : pojos) {
-                pojo.relevance = 0;
+                hits.add(new ScoredPojo(pojo, 0));
             }
         } else {
             // Get length of history, this is needed so there are no entries missed.
@@ -614,9 +770,10 @@ public class DataHandler extends BroadcastReceiver
 
             for (Pojo pojo : pojos) {
                 Integer calculated = relevance.get(pojo.id);
-                pojo.relevance = calculated != null ? calculated : 0;
+                hits.add(new ScoredPojo(pojo, calculated != null ? calculated : 0));
             }
         }
+        return hits;
     }
 
     /**
@@ -638,6 +795,7 @@ public class DataHandler extends BroadcastReceiver
 
     public void clearHistory() {
         DBHelper.clearHistory(this.context);
+        searchResultCache.invalidate();
     }
 
     /**
@@ -751,7 +909,13 @@ public class DataHandler extends BroadcastReceiver
 
         DBHelper.removeShortcuts(this.context, packageName);
 
-        reloadShortcuts();
+        // merged with updates of the package requested meanwhile, see updateShortcutsPackage
+        reloadScheduler.requestUpdate("shortcuts", packageName, () -> {
+            ShortcutsProvider shortcutsProvider = getShortcutsProvider();
+            if (shortcutsProvider != null) {
+                shortcutsProvider.removePackage(packageName);
+            }
+        });
     }
 
     @NonNull
@@ -934,11 +1098,25 @@ public class DataHandler extends BroadcastReceiver
         return (entry != null) ? ((ContactsProvider) entry.provider) : null;
     }
 
+    /**
+     * Reload contacts once other changes requested meanwhile are known, see {@link ReloadScheduler}.
+     * Can be called from any thread
+     */
     public void reloadContactsProvider() {
-        ContactsProvider contactsProvider = getContactsProvider();
-        if (contactsProvider != null) {
-            contactsProvider.reload();
-        }
+        reloadScheduler.requestReload("contacts");
+    }
+
+    /**
+     * Load contacts changed since the last load, see {@link ContactsProvider#sync()}.
+     * Syncs requested meanwhile are merged, see {@link ReloadScheduler}. Can be called from any thread
+     */
+    public void syncContacts() {
+        reloadScheduler.requestUpdate("contacts", "sync", () -> {
+            ContactsProvider contactsProvider = getContactsProvider();
+            if (contactsProvider != null) {
+                contactsProvider.sync();
+            }
+        });
     }
 
     @Nullable
@@ -947,11 +1125,24 @@ public class DataHandler extends BroadcastReceiver
         return (entry != null) ? ((ShortcutsProvider) entry.provider) : null;
     }
 
+    /**
+     * Reload shortcuts once other changes requested meanwhile are known, see {@link ReloadScheduler}
+     */
     public void reloadShortcuts() {
-        ShortcutsProvider shortcutsProvider = getShortcutsProvider();
-        if (shortcutsProvider != null) {
-            shortcutsProvider.reload();
-        }
+        reloadScheduler.requestReload("shortcuts");
+    }
+
+    /**
+     * Load the shortcuts of a single package again, see {@link ShortcutsProvider#updatePackage(String)}.
+     * Updates of the same package requested meanwhile are merged, see {@link ReloadScheduler}
+     */
+    public void updateShortcutsPackage(String packageName) {
+        reloadScheduler.requestUpdate("shortcuts", packageName, () -> {
+            ShortcutsProvider shortcutsProvider = getShortcutsProvider();
+            if (shortcutsProvider != null) {
+                shortcutsProvider.updatePackage(packageName);
+            }
+        });
     }
 
     @Nullable
@@ -960,14 +1151,48 @@ public class DataHandler extends BroadcastReceiver
         return (entry != null) ? ((AppProvider) entry.provider) : null;
     }
 
+    /**
+     * Reload apps once other changes requested meanwhile are known, see {@link ReloadScheduler}
+     */
     public void reloadApps() {
-        // Invalidate tag cache when apps are reloaded
-        invalidateTagCache();
-        markDataUpdated(); // 데이터 변경 표시
-        AppProvider appProvider = getAppProvider();
-        if (appProvider != null) {
-            appProvider.reload();
-        }
+        reloadScheduler.requestReload("app");
+    }
+
+    /**
+     * Load the apps of a single package again, see {@link AppProvider#updatePackage(String, UserHandle)}.
+     * Updates of the same package requested meanwhile are merged, see {@link ReloadScheduler}
+     */
+    public void updateAppPackage(String packageName, UserHandle user) {
+        reloadScheduler.requestUpdate("app", getPackageKey(packageName, user), () -> {
+            invalidateTagCache();
+            markDataUpdated();
+            AppProvider appProvider = getAppProvider();
+            if (appProvider != null) {
+                appProvider.updatePackage(packageName, user);
+            }
+        });
+    }
+
+    /**
+     * Remove the apps of an uninstalled package, see {@link AppProvider#removePackage(String, UserHandle)}.
+     * Merged with updates of the same package requested meanwhile, see {@link ReloadScheduler}
+     */
+    public void removeAppPackage(String packageName, UserHandle user) {
+        reloadScheduler.requestUpdate("app", getPackageKey(packageName, user), () -> {
+            invalidateTagCache();
+            markDataUpdated();
+            AppProvider appProvider = getAppProvider();
+            if (appProvider != null) {
+                appProvider.removePackage(packageName, user);
+            }
+        });
+    }
+
+    /**
+     * @return key of a package for {@link ReloadScheduler}, so that updates and removals of a package are merged
+     */
+    private static String getPackageKey(String packageName, UserHandle user) {
+        return user.getSerial() + "|" + packageName;
     }
 
     @Nullable
@@ -1147,13 +1372,28 @@ public class DataHandler extends BroadcastReceiver
 
         if (!frozen && !excludedFromHistory.contains(id)) {
             DBHelper.insertHistory(this.context, currentQuery, id);
+            // results selected for a query get a boost the next time
+            searchResultCache.invalidate();
         }
     }
 
     private Pojo getPojo(String id) {
+        // ids start with the scheme of their provider, route them with a single lookup
+        int schemeEnd = id.indexOf("://");
+        String scheme = schemeEnd < 0 ? null : id.substring(0, schemeEnd + 3);
+        if (scheme != null) {
+            ProviderEntry entry = this.providersByScheme.get(scheme);
+            if (entry != null && entry.provider != null) {
+                return entry.provider.findById(id);
+            }
+        }
+
         // Ask all providers if they know this id
         for (ProviderEntry entry : this.providers.values()) {
             if (entry.provider != null && entry.provider.mayFindById(id)) {
+                if (scheme != null) {
+                    this.providersByScheme.put(scheme, entry);
+                }
                 return entry.provider.findById(id);
             }
         }
@@ -1176,6 +1416,8 @@ public class DataHandler extends BroadcastReceiver
 
     public void renameApp(String componentName, String newName) {
         DBHelper.addCustomAppName(context, componentName, newName);
+        // name of the pojo was changed in place
+        invalidateSearchCandidates();
     }
 
     public void removeRenameApp(String componentName) {
@@ -645,6 +645,22 @@ public class IconsHandler {
         cacheClear();
     }
 
+    /**
+     * Forget cached icons of a package after it was installed, updated or removed.
+     *
+     * @param packageName package that changed
+     * @return false if the package is the icon pack in use, whose icons can only be reloaded
+     * with a new {@link IconsHandler}
+     */
+    public boolean invalidatePackage(String packageName) {
+        if (mIconPack != null && packageName.equals(mIconPack.getPackPackageName())) {
+            return false;
+        }
+        // cache keys are component names, "package/activity" followed by the user
+        iconCacheManager.removeIcons(packageName + "/");
+        return true;
+    }
+
     /**
      * clears cache for custom icon ids
      */
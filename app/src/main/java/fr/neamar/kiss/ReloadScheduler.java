@@ -0,0 +1,150 @@
+package fr.neamar.kiss;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Coalesces reloads of providers: a store updating dozens of apps, or a contact sync, sends many
+ * events in a row, and each of them used to start a new reload cancelling the previous one.
+ * <p>
+ * Requests for a provider are collected for {@link #WINDOW_MS} after the first one, then run once:
+ * a full reload if one was requested, otherwise the updates of single packages, merged by package.
+ * Nothing is run while the provider is still loading, be it a full reload or updates of packages,
+ * so that a reload never races with updates and updates of the same package are applied in order.
+ * Requests made meanwhile wait for it.
+ * <p>
+ * Requests can be made from any thread, reloads and updates are run on the thread of the executor.
+ */
+final class ReloadScheduler {
+    static final long WINDOW_MS = 300;
+    /**
+     * Pending package updates above which the provider is fully reloaded instead
+     */
+    static final int MAX_PACKAGE_UPDATES = 16;
+
+    interface DelayedExecutor {
+        /**
+         * Run the task after given delay, usually {@link android.os.Handler#postDelayed(Runnable, long)}
+         */
+        void postDelayed(Runnable task, long delayMillis);
+    }
+
+    interface Providers {
+        /**
+         * Start a full reload of the provider
+         */
+        void reload(String name);
+
+        /**
+         * @return true while pojos of the provider are being loaded, by a reload or an update
+         */
+        boolean isReloading(String name);
+    }
+
+    private final DelayedExecutor executor;
+    private final Providers providers;
+    private final Map<String, Pending> pending = new HashMap<>();
+
+    private int requestCount = 0;
+    private int suppressedCount = 0;
+    private int deferredCount = 0;
+    private int reloadCount = 0;
+    private int updateCount = 0;
+
+    ReloadScheduler(@NonNull DelayedExecutor executor, @NonNull Providers providers) {
+        this.executor = executor;
+        this.providers = providers;
+    }
+
+    /**
+     * Reload all pojos of a provider
+     *
+     * @param name name of the provider, as in {@link DataHandler}
+     */
+    synchronized void requestReload(@NonNull String name) {
+        Pending entry = getPending(name);
+        if (entry.reload) {
+            suppressedCount++;
+        }
+        // a full reload covers updates of single packages
+        suppressedCount += entry.updates.size();
+        entry.updates.clear();
+        entry.reload = true;
+    }
+
+    /**
+     * Update the pojos of a single package of a provider
+     *
+     * @param name   name of the provider, as in {@link DataHandler}
+     * @param key    identifies the package, requests with the same key are merged
+     * @param update updates pojos of the package
+     */
+    synchronized void requestUpdate(@NonNull String name, @NonNull String key, @NonNull Runnable update) {
+        Pending entry = getPending(name);
+        if (entry.reload || entry.updates.put(key, update) != null) {
+            suppressedCount++;
+        } else if (entry.updates.size() > MAX_PACKAGE_UPDATES) {
+            suppressedCount += entry.updates.size() - 1;
+            entry.updates.clear();
+            entry.reload = true;
+        }
+    }
+
+    private Pending getPending(String name) {
+        requestCount++;
+        Pending entry = pending.get(name);
+        if (entry == null) {
+            entry = new Pending();
+            pending.put(name, entry);
+            executor.postDelayed(() -> run(name), WINDOW_MS);
+        }
+        return entry;
+    }
+
+    private void run(String name) {
+        if (providers.isReloading(name)) {
+            // wait for the running reload or updates, requests made meanwhile are still pending
+            synchronized (this) {
+                deferredCount++;
+            }
+            executor.postDelayed(() -> run(name), WINDOW_MS);
+            return;
+        }
+
+        Pending entry;
+        synchronized (this) {
+            entry = pending.remove(name);
+            if (entry == null) {
+                return;
+            }
+            if (entry.reload) {
+                reloadCount++;
+            } else {
+                updateCount += entry.updates.size();
+            }
+        }
+
+        if (entry.reload) {
+            providers.reload(name);
+        } else {
+            for (Runnable update : entry.updates.values()) {
+                update.run();
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return "Reload scheduler: " + requestCount + " requests, " + reloadCount + " reloads, "
+                + updateCount + " package updates, " + suppressedCount + " suppressed, " + deferredCount + " deferred";
+    }
+
+    private static final class Pending {
+        boolean reload = false;
+        final Map<String, Runnable> updates = new LinkedHashMap<>();
+    }
+}
@@ -55,6 +55,7 @@ public class TagsHandler {
         // Invalidate DataHandler tag cache when tags are changed
         if (dataHandler != null) {
             dataHandler.invalidateTagCache();
+            dataHandler.invalidateSearchCandidates();
         }
     }
 
@@ -16,7 +16,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import fr.neamar.kiss.normalizer.StringNormalizer;
 import fr.neamar.kiss.result.AppResult;
 import fr.neamar.kiss.result.ContactsResult;
 import fr.neamar.kiss.result.PhoneResult;
@@ -26,12 +25,9 @@ import fr.neamar.kiss.result.SettingsResult;
 import fr.neamar.kiss.result.ShortcutsResult;
 import fr.neamar.kiss.searcher.QueryInterface;
 import fr.neamar.kiss.ui.ListPopup;
-import fr.neamar.kiss.utils.fuzzy.FuzzyFactory;
-import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
 
 public class RecordAdapter extends BaseAdapter implements SectionIndexer {
     private final QueryInterface parent;
-    private FuzzyScore fuzzyScore;
 
     /**
      * Array list containing all the results currently displayed
@@ -47,7 +43,6 @@ public class RecordAdapter extends BaseAdapter implements SectionIndexer {
     public RecordAdapter(QueryInterface parent, List<Result<?>> results) {
         this.parent = parent;
         this.results = results;
-        this.fuzzyScore = null;
     }
 
     @Override
@@ -98,7 +93,7 @@ public class RecordAdapter extends BaseAdapter implements SectionIndexer {
     @Override
     @NonNull
     public View getView(int position, View convertView, @NonNull ViewGroup parent) {
-        return results.get(position).display(parent.getContext(), convertView, parent, fuzzyScore);
+        return results.get(position).display(parent.getContext(), convertView, parent);
     }
 
     public void onLongClick(final int pos, View v) {
@@ -128,12 +123,12 @@ public class RecordAdapter extends BaseAdapter implements SectionIndexer {
         parent.temporarilyDisableTranscriptMode();
     }
 
-    public void updateResults(@NonNull Context context, List<Result<?>> results, boolean isRefresh, String query) {
+    /**
+     * @param results results to display, with their highlights already prepared
+     */
+    public void updateResults(List<Result<?>> results, boolean isRefresh) {
         this.results.clear();
         this.results.addAll(results);
-        StringNormalizer.Result queryNormalized = StringNormalizer.normalizeWithResult(query, false);
-
-        fuzzyScore = FuzzyFactory.createFuzzyScore(context, queryNormalized.codePoints, true);
         notifyDataSetChanged();
 
         if (isRefresh) {
@@ -1,7 +1,6 @@
 package fr.neamar.kiss.broadcast;
 
 import android.content.BroadcastReceiver;
-import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.preference.PreferenceManager;
@@ -9,18 +8,16 @@ import android.preference.PreferenceManager;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.Set;
-
+import fr.neamar.kiss.DataHandler;
+import fr.neamar.kiss.IconsHandler;
 import fr.neamar.kiss.KissApplication;
-import fr.neamar.kiss.pojo.AppPojo;
-import fr.neamar.kiss.utils.PackageManagerUtils;
 import fr.neamar.kiss.utils.UserHandle;
 
 /**
  * This class gets called when an application is created or removed on the
  * system
  * <p/>
- * We then recreate our data set.
+ * We then update our data set for the changed packages.
  *
  * @author dorvaryn
  */
@@ -45,49 +42,36 @@ public class PackageAddedRemovedHandler extends BroadcastReceiver {
         }
 
         KissApplication.getMimeTypeCache(ctx).clearCache();
+        invalidateIcons(ctx, packageNames);
 
+        // Only the apps and shortcuts of the changed packages are loaded again
+        DataHandler dataHandler = KissApplication.getApplication(ctx).getDataHandler();
         if (Intent.ACTION_PACKAGE_REMOVED.equals(action)) {
             if (!replacing) {
-                KissApplication.getApplication(ctx).resetIconsHandler();
-                // Reload application list
-                KissApplication.getApplication(ctx).getDataHandler().reloadApps();
-                // Remove all installed shortcuts
                 for (String packageName : packageNames) {
-                    KissApplication.getApplication(ctx).getDataHandler().removeShortcuts(packageName);
-                    KissApplication.getApplication(ctx).getDataHandler().removeFromExcluded(packageName);
+                    dataHandler.removeAppPackage(packageName, user);
+                    // Remove all installed shortcuts
+                    dataHandler.removeShortcuts(packageName);
+                    dataHandler.removeFromExcluded(packageName);
                 }
             }
         } else {
-            KissApplication.getApplication(ctx).resetIconsHandler();
-
-            boolean isAnyPackageVisible = isAnyPackageVisible(ctx, packageNames, user);
-            if (isAnyPackageVisible) {
-                // Reload application list
-                KissApplication.getApplication(ctx).getDataHandler().reloadApps();
-                // Reload shortcuts
-                KissApplication.getApplication(ctx).getDataHandler().reloadShortcuts();
+            for (String packageName : packageNames) {
+                dataHandler.updateAppPackage(packageName, user);
+                dataHandler.updateShortcutsPackage(packageName);
             }
         }
     }
 
-    /**
-     * @param ctx
-     * @param packageNames
-     * @param userHandle
-     * @return true, if any of packages has activity for launching and is not excluded from KISS
-     */
-    private static boolean isAnyPackageVisible(Context ctx, String[] packageNames, UserHandle userHandle) {
-        Set<String> excludedApps = KissApplication.getApplication(ctx).getDataHandler().getExcluded();
+    private static void invalidateIcons(Context ctx, String[] packageNames) {
+        IconsHandler iconsHandler = KissApplication.getApplication(ctx).getIconsHandler();
         for (String packageName : packageNames) {
-            ComponentName launchingComponent = PackageManagerUtils.getLaunchingComponent(ctx, packageName, userHandle);
-            if (launchingComponent != null) {
-                boolean isExcluded = excludedApps.contains(AppPojo.getComponentName(launchingComponent.getPackageName(), launchingComponent.getClassName(), userHandle));
-                if (!isExcluded) {
-                    return true;
-                }
+            if (!iconsHandler.invalidatePackage(packageName)) {
+                // icon pack in use changed
+                KissApplication.getApplication(ctx).resetIconsHandler();
+                return;
             }
         }
-        return false;
     }
 
     @Override
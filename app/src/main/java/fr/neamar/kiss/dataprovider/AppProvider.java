@@ -3,27 +3,32 @@ package fr.neamar.kiss.dataprovider;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.content.SharedPreferences;
 import android.content.pm.LauncherApps;
 import android.os.Build;
 import android.os.UserManager;
-import androidx.preference.PreferenceManager;
+import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 
-import fr.neamar.kiss.KissApplication;
 import fr.neamar.kiss.broadcast.PackageAddedRemovedHandler;
+import fr.neamar.kiss.loader.LoadAppPojosCoroutine;
 import fr.neamar.kiss.normalizer.StringNormalizer;
 import fr.neamar.kiss.pojo.AppPojo;
+import fr.neamar.kiss.pojo.BestMatch;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
-import fr.neamar.kiss.utils.fuzzy.FuzzyFactory;
+import fr.neamar.kiss.utils.AsyncCallback;
+import fr.neamar.kiss.utils.CoroutineUtils;
 import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
 import fr.neamar.kiss.utils.UserHandle;
-import fr.neamar.kiss.utils.fuzzy.MatchInfo;
 
 public class AppProvider extends Provider<AppPojo> {
+    private static final String TAG = AppProvider.class.getSimpleName();
+    private static final SearchableFields<AppPojo> SEARCHABLE_FIELDS = SearchableFields.nameAndTags();
 
     @Override
     public void onCreate() {
@@ -88,60 +93,157 @@ public class AppProvider extends Provider<AppPojo> {
     public void reload() {
         super.reload();
         // Use Kotlin Coroutines version for better performance and maintainability
-        this.initializeCoroutines(new fr.neamar.kiss.loader.LoadAppPojosCoroutine(this));
+        this.initializeCoroutines(new LoadAppPojosCoroutine(this));
     }
 
     /**
-     * @param query    The string to search for
-     * @param searcher The receiver of results
+     * Load the apps of a single package again, after it was installed, updated or changed,
+     * instead of listing all apps of all users
+     *
+     * @param packageName package that changed
+     * @param user        user the package changed for
      */
+    public void updatePackage(String packageName, UserHandle user) {
+        LoadAppPojosCoroutine loader = new LoadAppPojosCoroutine(this);
+        trackUpdate(CoroutineUtils.runAsyncWithResult(() -> loader.loadPackage(packageName, user), new AsyncCallback<List<AppPojo>>() {
+            @Override
+            public void onResult(List<AppPojo> apps) {
+                replacePojos(app -> isOfPackage(app, packageName, user), apps);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                Log.w(TAG, "Unable to update package " + packageName + ", reloading all apps", error);
+                reload();
+            }
+        }));
+    }
+
+    /**
+     * Remove the apps of a package that was uninstalled for a user
+     *
+     * @param packageName package that was removed
+     * @param user        user the package was removed for
+     */
+    public void removePackage(String packageName, UserHandle user) {
+        replacePojos(app -> isOfPackage(app, packageName, user), Collections.emptyList());
+    }
+
+    private static boolean isOfPackage(AppPojo app, String packageName, UserHandle user) {
+        return app.packageName.equals(packageName) && app.userHandle.getSerial() == user.getSerial();
+    }
 
     @Override
-    public void requestResults(String query, Searcher searcher) {
-        Set<String> excludedFavoriteIds = KissApplication.getApplication(this).getDataHandler().getExcludedFavorites();
+    SearchableFields<AppPojo> getSearchableFields() {
+        return SEARCHABLE_FIELDS;
+    }
 
-        StringNormalizer.Result queryNormalized = StringNormalizer.normalizeWithResult(query, false);
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(this);
+    @Override
+    boolean scoresPrefixesFirst() {
+        return true;
+    }
+
+    @Override
+    public void requestResults(SearchQuery query, Searcher searcher) {
+        StringNormalizer.Result queryNormalized = query.normalized;
         if (queryNormalized.codePoints.length == 0) {
             return;
         }
 
-        FuzzyScore fuzzyScore = FuzzyFactory.createFuzzyScore(this, queryNormalized.codePoints);
+        FuzzyScore fuzzyScore = query.createFuzzyScore();
+        long dataVersion = getDataVersion();
+        List<AppPojo> matches = new ArrayList<>();
+
+        // queries made of initial consonants only are answered by the chosung index
+        SearchCandidates<AppPojo> candidates = getChosungCandidates(query, dataVersion);
+        boolean chosungOnly = candidates != null;
+        Set<AppPojo> scored = Collections.emptySet();
+        if (!chosungOnly) {
+            candidates = getCandidates(queryNormalized.codePoints, dataVersion);
+
+            // pojos whose initials or a word start with the query are usually the best matches,
+            // display them before scoring the other candidates
+            SearchCandidates<AppPojo> firstCandidates = getPrefixCandidates(queryNormalized.codePoints, dataVersion);
+            if (firstCandidates != null && firstCandidates.size() > 0) {
+                if (!addMatches(query, fuzzyScore, firstCandidates, false, scored, matches, searcher)) {
+                    return;
+                }
+                searcher.publishFirstResults();
+                scored = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (int i = 0; i < firstCandidates.size(); i++) {
+                    scored.add(firstCandidates.getPojo(i));
+                }
+            }
+        }
+        if (!addMatches(query, fuzzyScore, candidates, chosungOnly, scored, matches, searcher)) {
+            return;
+        }
+
+        // the index misses scattered matches, following keystrokes can't start from its matches
+        if (!chosungOnly) {
+            rememberMatches(queryNormalized.codePoints, dataVersion, matches);
+        }
+    }
 
-        for (AppPojo pojo : getPojos()) {
+    /**
+     * Score candidates and add their hits to the searcher
+     *
+     * @param chosungOnly true if the query is made of initial consonants only
+     * @param scored      candidates to skip, already scored
+     * @param matches     list to add all matching candidates to
+     * @return false if the search was cancelled
+     */
+    private boolean addMatches(SearchQuery query, FuzzyScore fuzzyScore, SearchCandidates<AppPojo> candidates, boolean chosungOnly,
+                               Set<AppPojo> scored, List<AppPojo> matches, Searcher searcher) {
+        BestMatch bestMatch = new BestMatch();
+        int threshold = searcher.getAdmissionThreshold();
+        for (int i = 0; i < candidates.size(); i++) {
+            AppPojo pojo = candidates.getPojo(i);
+            if (scored.contains(pojo)) {
+                continue;
+            }
             // exclude apps from results
-            if (pojo.isExcluded() && !prefs.getBoolean("enable-excluded-apps", false)) {
+            if (pojo.isExcluded() && !query.excludedAppsEnabled) {
                 continue;
             }
             // exclude favorites from results
-            if (excludedFavoriteIds.contains(pojo.getFavoriteId())) {
+            if (query.excludedFavoriteIds.contains(pojo.getFavoriteId())) {
                 continue;
             }
 
-            MatchInfo matchInfo = fuzzyScore.match(pojo.normalizedName.codePoints);
-            boolean match = pojo.updateMatchingRelevance(matchInfo, false);
+            bestMatch.reset();
+            if (!chosungOnly) {
+                bestMatch.update(candidates.match(fuzzyScore, i, SearchableFields.NAME));
 
-            // check relevance for tags
-            if (pojo.getNormalizedTags() != null) {
-                matchInfo = fuzzyScore.match(pojo.getNormalizedTags().codePoints);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
+                // check relevance for tags
+                bestMatch.update(candidates.match(fuzzyScore, i, SearchableFields.TAGS));
             }
 
-            if (match && !searcher.addResult(pojo)) {
-                return;
+            // check relevance for initial consonants of Korean names
+            if (query.hasHangulInitial) {
+                bestMatch.update(candidates.match(fuzzyScore, i, SearchableFields.CHOSUNG));
+            }
+
+            if (bestMatch.isMatch()) {
+                matches.add(pojo);
+                // the searcher would reject this hit, there are enough better ones
+                if (bestMatch.getScore() < threshold) {
+                    if (searcher.isCancelled()) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (!searcher.addResult(bestMatch.toScoredPojo(pojo))) {
+                    return false;
+                }
+                threshold = searcher.getAdmissionThreshold();
             }
         }
+        return true;
     }
 
     public List<AppPojo> getAllApps() {
-        List<AppPojo> pojos = getPojos();
-        List<AppPojo> records = new ArrayList<>(pojos.size());
-
-        for (AppPojo pojo : pojos) {
-            pojo.relevance = 0;
-            records.add(pojo);
-        }
-        return records;
+        return new ArrayList<>(getPojos());
     }
 
     public List<AppPojo> getAllAppsWithoutExcluded() {
@@ -151,7 +253,6 @@ public class AppProvider extends Provider<AppPojo> {
         for (AppPojo pojo : pojos) {
             if (pojo.isExcluded()) continue;
 
-            pojo.relevance = 0;
             records.add(pojo);
         }
         return records;
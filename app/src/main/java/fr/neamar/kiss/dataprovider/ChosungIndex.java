@@ -0,0 +1,132 @@
+package fr.neamar.kiss.dataprovider;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+import fr.neamar.kiss.pojo.Pojo;
+
+/**
+ * Index of the initial consonants of Korean names, see {@link Pojo#normalizedChosung}: a query
+ * made of initial consonants only, like "ㅋㅋㅇ", finds the pojos whose chosung contains it
+ * (here "카카오") with a lookup, instead of fuzzy scoring every pojo.
+ * <p>
+ * There are only 19 initial consonants, so a sequence of up to {@link #MAX_LENGTH} of them is
+ * packed in an int, 5 bits per consonant. Keys are every sequence of consecutive initial consonants
+ * of the names, postings are kept like in {@link CodePointIndex}: one int per sequence of each
+ * name, a three syllable name has three sequences.
+ */
+final class ChosungIndex {
+    /**
+     * Single consonants are initials of too many names to be worth indexing
+     */
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 6;
+
+    /**
+     * Conjoining choseong jamo, typed compatibility jamo are normalized to these
+     */
+    private static final int FIRST_CHOSEONG = 0x1100;
+    private static final int LAST_CHOSEONG = 0x1112;
+
+    private static final int[] NO_POJO = new int[0];
+
+    private final int[] keys;
+    private final int[] starts;
+    private final int[] postings;
+
+    private ChosungIndex(int[] keys, int[] starts, int[] postings) {
+        this.keys = keys;
+        this.starts = starts;
+        this.postings = postings;
+    }
+
+    static ChosungIndex build(List<? extends Pojo> pojos) {
+        // (key, pojo) pairs packed in longs, so that sorting groups them by key then pojo
+        long[] pairs = new long[16];
+        int pairCount = 0;
+        for (int pojo = 0; pojo < pojos.size(); pojo++) {
+            if (pojos.get(pojo).normalizedChosung == null) {
+                continue;
+            }
+            int[] chosung = pojos.get(pojo).normalizedChosung.codePoints;
+            for (int start = 0; start < chosung.length; start++) {
+                int key = 0;
+                for (int length = 1; length <= MAX_LENGTH && start + length <= chosung.length; length++) {
+                    int consonant = consonant(chosung[start + length - 1]);
+                    if (consonant == 0) {
+                        break;
+                    }
+                    key = (key << 5) | consonant;
+                    if (length < MIN_LENGTH) {
+                        continue;
+                    }
+                    if (pairCount == pairs.length) {
+                        pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+                    }
+                    pairs[pairCount++] = ((long) key << 32) | pojo;
+                }
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+
+        // same sequence may appear twice in a name
+        int distinct = 0;
+        int keyCount = 0;
+        for (int i = 0; i < pairCount; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue;
+            }
+            if (distinct == 0 || (pairs[i] >>> 32) != (pairs[distinct - 1] >>> 32)) {
+                keyCount++;
+            }
+            pairs[distinct++] = pairs[i];
+        }
+
+        int[] keys = new int[keyCount];
+        int[] starts = new int[keyCount + 1];
+        int[] postings = new int[distinct];
+        int key = -1;
+        for (int i = 0; i < distinct; i++) {
+            int packed = (int) (pairs[i] >>> 32);
+            if (key < 0 || packed != keys[key]) {
+                key++;
+                keys[key] = packed;
+                starts[key] = i;
+            }
+            postings[i] = (int) pairs[i];
+        }
+        starts[keyCount] = distinct;
+        return new ChosungIndex(keys, starts, postings);
+    }
+
+    /**
+     * @return 1 to 19 for initial consonants, 0 for any other code point
+     */
+    private static int consonant(int codePoint) {
+        return codePoint >= FIRST_CHOSEONG && codePoint <= LAST_CHOSEONG ? codePoint - FIRST_CHOSEONG + 1 : 0;
+    }
+
+    /**
+     * @param query normalized code points of the query
+     * @return indices of the pojos whose chosung contains the query, in increasing order.
+     * Null if the query isn't only made of {@link #MIN_LENGTH} to {@link #MAX_LENGTH} initial consonants.
+     */
+    @Nullable
+    int[] select(int[] query) {
+        if (query.length < MIN_LENGTH || query.length > MAX_LENGTH) {
+            return null;
+        }
+        int packed = 0;
+        for (int codePoint : query) {
+            int consonant = consonant(codePoint);
+            if (consonant == 0) {
+                return null;
+            }
+            packed = (packed << 5) | consonant;
+        }
+        int key = Arrays.binarySearch(keys, packed);
+        return key >= 0 ? Arrays.copyOfRange(postings, starts[key], starts[key + 1]) : NO_POJO;
+    }
+}
@@ -0,0 +1,156 @@
+package fr.neamar.kiss.dataprovider;
+
+import java.util.Arrays;
+
+/**
+ * Inverted index from lowercase code points to the pojos having them in one of their fields.
+ * <p>
+ * Both fuzzy scorers match the query as a subsequence of a field, so a pojo can only match if it
+ * has every code point of the query: intersecting the posting lists of the query code points gives
+ * all pojos worth scoring, usually a small part of the provider for queries of a few characters.
+ * <p>
+ * Keys, posting list bounds and postings are kept in three int arrays, postings of key
+ * {@code keys[k]} are {@code postings[starts[k]]} to {@code postings[starts[k + 1]]} (exclusive),
+ * sorted by pojo index.
+ */
+final class CodePointIndex {
+    private final int[] keys;
+    private final int[] starts;
+    private final int[] postings;
+
+    private CodePointIndex(int[] keys, int[] starts, int[] postings) {
+        this.keys = keys;
+        this.starts = starts;
+        this.postings = postings;
+    }
+
+    /**
+     * @param codePoints all code points of the arena
+     * @param offsets    offset of each slot in {@code codePoints}
+     * @param lengths    length of each slot, negative if the slot has no value
+     * @param fieldCount number of slots per pojo
+     */
+    static CodePointIndex build(int[] codePoints, int[] offsets, int[] lengths, int fieldCount) {
+        int pojoCount = fieldCount == 0 ? 0 : lengths.length / fieldCount;
+
+        // (code point, pojo) pairs packed in longs, so that sorting groups them by code point then pojo
+        long[] pairs = new long[16];
+        int pairCount = 0;
+        int[] pojoCodePoints = new int[16];
+        for (int pojo = 0; pojo < pojoCount; pojo++) {
+            int count = 0;
+            for (int slot = pojo * fieldCount; slot < (pojo + 1) * fieldCount; slot++) {
+                if (lengths[slot] <= 0) {
+                    continue;
+                }
+                if (count + lengths[slot] > pojoCodePoints.length) {
+                    pojoCodePoints = Arrays.copyOf(pojoCodePoints, Math.max(2 * pojoCodePoints.length, count + lengths[slot]));
+                }
+                for (int i = offsets[slot]; i < offsets[slot] + lengths[slot]; i++) {
+                    pojoCodePoints[count++] = Character.toLowerCase(codePoints[i]);
+                }
+            }
+            Arrays.sort(pojoCodePoints, 0, count);
+            for (int i = 0; i < count; i++) {
+                if (i > 0 && pojoCodePoints[i] == pojoCodePoints[i - 1]) {
+                    continue;
+                }
+                if (pairCount == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+                }
+                pairs[pairCount++] = ((long) pojoCodePoints[i] << 32) | pojo;
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+
+        int keyCount = 0;
+        for (int i = 0; i < pairCount; i++) {
+            if (i == 0 || (pairs[i] >>> 32) != (pairs[i - 1] >>> 32)) {
+                keyCount++;
+            }
+        }
+        int[] keys = new int[keyCount];
+        int[] starts = new int[keyCount + 1];
+        int[] postings = new int[pairCount];
+        int key = -1;
+        for (int i = 0; i < pairCount; i++) {
+            int codePoint = (int) (pairs[i] >>> 32);
+            if (key < 0 || codePoint != keys[key]) {
+                key++;
+                keys[key] = codePoint;
+                starts[key] = i;
+            }
+            postings[i] = (int) pairs[i];
+        }
+        starts[keyCount] = pairCount;
+        return new CodePointIndex(keys, starts, postings);
+    }
+
+    /**
+     * @param query normalized code points of the query
+     * @return indices of the pojos having all code points of the query, in increasing order
+     */
+    int[] select(int[] query) {
+        int[] queryKeys = new int[query.length];
+        for (int i = 0; i < query.length; i++) {
+            queryKeys[i] = Character.toLowerCase(query[i]);
+        }
+        Arrays.sort(queryKeys);
+
+        // start from the shortest posting list, the result can only get smaller
+        int shortest = -1;
+        int[] keyIndices = new int[queryKeys.length];
+        int keyCount = 0;
+        for (int i = 0; i < queryKeys.length; i++) {
+            if (i > 0 && queryKeys[i] == queryKeys[i - 1]) {
+                continue;
+            }
+            int key = Arrays.binarySearch(keys, queryKeys[i]);
+            if (key < 0) {
+                return new int[0];
+            }
+            if (shortest < 0 || postingCount(key) < postingCount(shortest)) {
+                shortest = key;
+            }
+            keyIndices[keyCount++] = key;
+        }
+        if (shortest < 0) {
+            return new int[0];
+        }
+
+        int[] result = Arrays.copyOfRange(postings, starts[shortest], starts[shortest + 1]);
+        int resultCount = result.length;
+        for (int k = 0; k < keyCount && resultCount > 0; k++) {
+            int key = keyIndices[k];
+            if (key != shortest) {
+                resultCount = retainAll(result, resultCount, key);
+            }
+        }
+        return resultCount == result.length ? result : Arrays.copyOf(result, resultCount);
+    }
+
+    private int postingCount(int key) {
+        return starts[key + 1] - starts[key];
+    }
+
+    /**
+     * Keep the pojos of {@code result} that are also in the postings of {@code key}.
+     * Both are sorted, so a single merge pass is enough.
+     *
+     * @return number of pojos left at the start of {@code result}
+     */
+    private int retainAll(int[] result, int resultCount, int key) {
+        int count = 0;
+        int posting = starts[key];
+        int end = starts[key + 1];
+        for (int i = 0; i < resultCount && posting < end; i++) {
+            while (posting < end && postings[posting] < result[i]) {
+                posting++;
+            }
+            if (posting < end && postings[posting] == result[i]) {
+                result[count++] = result[i];
+            }
+        }
+        return count;
+    }
+}
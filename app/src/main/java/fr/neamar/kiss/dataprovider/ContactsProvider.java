@@ -8,20 +8,65 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
 
+import fr.neamar.kiss.KissApplication;
+import fr.neamar.kiss.loader.ContactsSyncState;
+import fr.neamar.kiss.loader.LoadContactsPojosCoroutine;
 import fr.neamar.kiss.normalizer.PhoneNormalizer;
 import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.BestMatch;
 import fr.neamar.kiss.pojo.ContactsPojo;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
-import fr.neamar.kiss.utils.fuzzy.FuzzyFactory;
 import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
 import fr.neamar.kiss.utils.Permission;
-import fr.neamar.kiss.utils.fuzzy.MatchInfo;
 
 public class ContactsProvider extends Provider<ContactsPojo> {
     protected static final String TAG = ContactsProvider.class.getSimpleName();
+    /**
+     * Number of contacts scored by a single task during a parallel search
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 500;
+
+    private static final int FIELD_NAME = 0;
+    private static final int FIELD_NAME_ALTERNATIVE = 1;
+    private static final int FIELD_PHONETIC_NAME = 2;
+    private static final int FIELD_NICKNAME = 3;
+    private static final int FIELD_PHONE = 4;
+    private static final int FIELD_IM_IDENTIFIER = 5;
+    private static final int FIELD_NAME_CHOSUNG = 6;
+    private static final SearchableFields<ContactsPojo> SEARCHABLE_FIELDS = new SearchableFields<ContactsPojo>() {
+        @Override
+        public int count() {
+            return 7;
+        }
+
+        @Nullable
+        @Override
+        public StringNormalizer.Result get(ContactsPojo pojo, int field) {
+            switch (field) {
+                case FIELD_NAME:
+                    return pojo.normalizedName;
+                case FIELD_NAME_ALTERNATIVE:
+                    return pojo.normalizedNameAlternative;
+                case FIELD_PHONETIC_NAME:
+                    return pojo.normalizedPhoneticName;
+                case FIELD_NICKNAME:
+                    return pojo.normalizedNickname;
+                case FIELD_PHONE:
+                    return pojo.normalizedPhone;
+                case FIELD_IM_IDENTIFIER:
+                    return pojo.getContactData() != null ? pojo.getContactData().getNormalizedIdentifier() : null;
+                default:
+                    return pojo.normalizedChosung;
+            }
+        }
+    };
     private final ContentObserver cObserver = new ContentObserver(null) {
 
         @Override
@@ -41,17 +86,34 @@ public class ContactsProvider extends Provider<ContactsPojo> {
 
         @Override
         public void onChange(boolean selfChange, @NonNull Collection<Uri> uris, int flags) {
-            //reload contacts
-            Log.v(TAG, "Contacts changed, reloading provider: " + uris + ", flags: " + flags);
-            reload();
+            //load changed contacts, once the changes of a sync are all known
+            Log.v(TAG, "Contacts changed, syncing provider: " + uris + ", flags: " + flags);
+            KissApplication.getApplication(ContactsProvider.this).getDataHandler().syncContacts();
         }
     };
 
+    /**
+     * Time of the last load, to only load contacts changed since
+     */
+    private final ContactsSyncState syncState = new ContactsSyncState();
+
     @Override
     public void reload() {
         super.reload();
         // Use Kotlin Coroutines version for better performance and maintainability
-        this.initializeCoroutines(new fr.neamar.kiss.loader.LoadContactsPojosCoroutine(this));
+        this.initializeCoroutines(new LoadContactsPojosCoroutine(this, syncState, null));
+    }
+
+    /**
+     * Only load contacts changed or deleted since the last load, and keep other contacts.
+     * Loads all contacts if they were never loaded, or if changes can't be known.
+     */
+    public void sync() {
+        if (!isLoaded()) {
+            reload();
+            return;
+        }
+        this.initializeCoroutines(new LoadContactsPojosCoroutine(this, syncState, getPojos()));
     }
 
     @Override
@@ -79,64 +141,149 @@ public class ContactsProvider extends Provider<ContactsPojo> {
     }
 
     @Override
-    public void requestResults(String query, Searcher searcher) {
-        StringNormalizer.Result queryNormalized = StringNormalizer.normalizeWithResult(query, false);
+    SearchableFields<ContactsPojo> getSearchableFields() {
+        return SEARCHABLE_FIELDS;
+    }
+
+    @Override
+    public void requestResults(SearchQuery query, Searcher searcher) {
+        StringNormalizer.Result queryNormalized = query.normalized;
 
         if (queryNormalized.codePoints.length == 0) {
             return;
         }
 
-        FuzzyScore fuzzyScore = FuzzyFactory.createFuzzyScore(this, queryNormalized.codePoints);
+        long dataVersion = getDataVersion();
+        // queries made of initial consonants only are answered by the chosung index
+        SearchCandidates<ContactsPojo> chosungCandidates = getChosungCandidates(query, dataVersion);
+        if (chosungCandidates != null) {
+            requestResults(query, chosungCandidates, 0, chosungCandidates.size(), true, searcher);
+            return;
+        }
+        SearchCandidates<ContactsPojo> candidates = getCandidates(queryNormalized.codePoints, dataVersion);
 
-        for (ContactsPojo pojo : getPojos()) {
-            MatchInfo matchInfo;
-            boolean match = false;
+        List<ContactsPojo> matches;
+        if (ForkJoinTask.inForkJoinPool() && candidates.size() >= 2 * PARALLEL_CHUNK_SIZE) {
+            // We are part of a parallel search, split the contact list to use the other workers as well
+            matches = requestResultsInChunks(query, candidates, searcher);
+        } else {
+            matches = requestResults(query, candidates, 0, candidates.size(), false, searcher);
+        }
+
+        // Phone numbers and IM identifiers are only searched for longer queries,
+        // so matches of shorter queries are incomplete candidates for the following keystrokes
+        if (matches != null && queryNormalized.length() > 2) {
+            rememberMatches(queryNormalized.codePoints, dataVersion, matches);
+        }
+    }
+
+    /**
+     * Score candidates in chunks of {@link #PARALLEL_CHUNK_SIZE} contacts on the current {@link java.util.concurrent.ForkJoinPool}
+     *
+     * @return all matches in order of candidates, null if search was interrupted
+     */
+    @Nullable
+    private List<ContactsPojo> requestResultsInChunks(SearchQuery query, SearchCandidates<ContactsPojo> candidates, Searcher searcher) {
+        List<ForkJoinTask<List<ContactsPojo>>> chunks = new ArrayList<>();
+        for (int start = 0; start < candidates.size(); start += PARALLEL_CHUNK_SIZE) {
+            final int from = start;
+            final int to = Math.min(candidates.size(), start + PARALLEL_CHUNK_SIZE);
+            chunks.add(ForkJoinTask.adapt(() -> requestResults(query, candidates, from, to, false, searcher)));
+        }
+        ForkJoinTask.invokeAll(chunks);
 
-            if (pojo.normalizedName != null) {
-                matchInfo = fuzzyScore.match(pojo.normalizedName.codePoints);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
+        List<ContactsPojo> matches = new ArrayList<>();
+        for (ForkJoinTask<List<ContactsPojo>> chunk : chunks) {
+            List<ContactsPojo> chunkMatches = chunk.join();
+            if (chunkMatches == null) {
+                return null;
             }
+            matches.addAll(chunkMatches);
+        }
+        return matches;
+    }
+
+    /**
+     * Score candidates from index {@code from} (inclusive) to {@code to} (exclusive) and post matches to the searcher
+     *
+     * @param chosungOnly candidates were found by the chosung index, only their chosung is scored
+     * @return matches, null if search was interrupted
+     */
+    @Nullable
+    private List<ContactsPojo> requestResults(SearchQuery query, SearchCandidates<ContactsPojo> candidates, int from, int to, boolean chosungOnly, Searcher searcher) {
+        // fuzzy score keeps state while matching, so every chunk needs its own instance
+        FuzzyScore fuzzyScore = query.createFuzzyScore();
+        StringNormalizer.Result queryNormalized = query.normalized;
+        List<ContactsPojo> matches = new ArrayList<>();
+
+        BestMatch bestMatch = new BestMatch();
+        int threshold = searcher.getAdmissionThreshold();
+
+        for (int i = from; i < to; i++) {
+            ContactsPojo pojo = candidates.getPojo(i);
+            bestMatch.reset();
+
+            if (chosungOnly) {
+                bestMatch.update(candidates.match(fuzzyScore, i, FIELD_NAME_CHOSUNG));
+                if (bestMatch.isMatch()) {
+                    matches.add(pojo);
+                    int bonus = pojo.starred ? 40 : 0;
+                    // the searcher would reject this hit, there are enough better ones
+                    if (bestMatch.getScore() + bonus < threshold) {
+                        if (searcher.isCancelled())
+                            return null;
+                        continue;
+                    }
+                    if (!searcher.addResult(bestMatch.toScoredPojo(pojo, bonus)))
+                        return null;
+                    threshold = searcher.getAdmissionThreshold();
+                }
+                continue;
+            }
+
+            bestMatch.update(candidates.match(fuzzyScore, i, FIELD_NAME));
 
             // Match also for alternative name, see https://developer.android.com/reference/android/provider/ContactsContract.ContactNameColumns#DISPLAY_NAME_ALTERNATIVE
             // This may result in better match but eventually some missing highlighting
-            if (pojo.normalizedNameAlternative != null) {
-                matchInfo = fuzzyScore.match(pojo.normalizedNameAlternative.codePoints);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
-            }
+            bestMatch.update(candidates.match(fuzzyScore, i, FIELD_NAME_ALTERNATIVE));
 
             // Match also for phonetic name
             // This may result in better match but eventually some missing highlighting
-            if (pojo.normalizedPhoneticName != null) {
-                matchInfo = fuzzyScore.match(pojo.normalizedPhoneticName.codePoints);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
-            }
+            bestMatch.update(candidates.match(fuzzyScore, i, FIELD_PHONETIC_NAME));
 
-            if (pojo.normalizedNickname != null) {
-                matchInfo = fuzzyScore.match(pojo.normalizedNickname.codePoints);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
+            bestMatch.update(candidates.match(fuzzyScore, i, FIELD_NICKNAME));
+
+            // Match also initial consonants of Korean names, e.g. "ㄱㄴㄹ" for "김나리"
+            if (query.hasHangulInitial) {
+                bestMatch.update(candidates.match(fuzzyScore, i, FIELD_NAME_CHOSUNG));
             }
 
-            if (!match && queryNormalized.length() > 2 && pojo.normalizedPhone != null) {
+            if (!bestMatch.isMatch() && queryNormalized.length() > 2) {
                 // search for the phone number
-                matchInfo = fuzzyScore.match(pojo.normalizedPhone.codePoints);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
+                bestMatch.update(candidates.match(fuzzyScore, i, FIELD_PHONE));
             }
 
-            if (!match && queryNormalized.length() > 2 && pojo.getContactData() != null && pojo.getContactData().getNormalizedIdentifier() != null) {
+            if (!bestMatch.isMatch() && queryNormalized.length() > 2) {
                 // search for IM identifier
-                matchInfo = fuzzyScore.match(pojo.getContactData().getNormalizedIdentifier().codePoints);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
+                bestMatch.update(candidates.match(fuzzyScore, i, FIELD_IM_IDENTIFIER));
             }
 
-            if (match) {
-                if (pojo.starred) {
-                    pojo.relevance += 40;
+            if (bestMatch.isMatch()) {
+                matches.add(pojo);
+                int bonus = pojo.starred ? 40 : 0;
+                // the searcher would reject this hit, there are enough better ones
+                if (bestMatch.getScore() + bonus < threshold) {
+                    if (searcher.isCancelled())
+                        return null;
+                    continue;
                 }
-
-                if (!searcher.addResult(pojo))
-                    return;
+                if (!searcher.addResult(bestMatch.toScoredPojo(pojo, bonus)))
+                    return null;
+                threshold = searcher.getAdmissionThreshold();
             }
         }
+
+        return matches;
     }
 
     /**
@@ -3,6 +3,7 @@ package fr.neamar.kiss.dataprovider;
 import java.util.List;
 
 import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
 
 /**
@@ -11,12 +12,12 @@ import fr.neamar.kiss.searcher.Searcher;
 public interface IProvider<T extends Pojo> {
 
     /**
-     * Post search results for the given query string to the searcher
+     * Post search results for the given query to the searcher
      *
-     * @param s        Some string query (usually provided by an user)
+     * @param query    Query (usually provided by an user), normalized with the settings of the search
      * @param searcher The receiver of results
      */
-    void requestResults(String s, Searcher searcher);
+    void requestResults(SearchQuery query, Searcher searcher);
 
     /**
      * Reload the data stored in this provider
@@ -0,0 +1,106 @@
+package fr.neamar.kiss.dataprovider;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.neamar.kiss.pojo.Pojo;
+
+/**
+ * Index from prefixes of the initials of pojo names to the pojos, e.g. "gm" to "Google Maps",
+ * "yt" and "ys" to "YouTube Studio", see {@link Pojo#nameInitials} and {@link Pojo#nameCamelInitials}.
+ * <p>
+ * Users often type these abbreviations, and the pojos found this way get the separator or camel
+ * case bonus for every character of the query: they are usually the best matches, so they are
+ * scored and displayed before all other candidates, see {@link SearchArena#selectPrefixes(int[])}.
+ */
+final class InitialsIndex {
+    /**
+     * Single characters are initials of too many pojos to be worth indexing
+     */
+    static final int MIN_LENGTH = 2;
+    /**
+     * Longer abbreviations are rarely typed
+     */
+    static final int MAX_LENGTH = 5;
+
+    private static final int[] NO_POJO = new int[0];
+
+    /**
+     * Indices of the pojos, in increasing order, by prefix of initials
+     */
+    private final Map<String, int[]> pojosByInitials;
+
+    private InitialsIndex(Map<String, int[]> pojosByInitials) {
+        this.pojosByInitials = pojosByInitials;
+    }
+
+    static InitialsIndex build(List<? extends Pojo> pojos) {
+        // first element of each array is the number of pojos in it
+        HashMap<String, int[]> pojosByInitials = new HashMap<>();
+        for (int i = 0; i < pojos.size(); i++) {
+            Pojo pojo = pojos.get(i);
+            if (pojo.nameInitials == null) {
+                continue;
+            }
+            addPrefixes(pojosByInitials, pojo.nameInitials, i, null);
+            if (pojo.nameCamelInitials != pojo.nameInitials) {
+                addPrefixes(pojosByInitials, pojo.nameCamelInitials, i, pojo.nameInitials);
+            }
+        }
+        for (Map.Entry<String, int[]> entry : pojosByInitials.entrySet()) {
+            int[] pojoIndices = entry.getValue();
+            entry.setValue(Arrays.copyOfRange(pojoIndices, 1, 1 + pojoIndices[0]));
+        }
+        return new InitialsIndex(pojosByInitials);
+    }
+
+    /**
+     * @param skip initials already added for this pojo, their prefixes are not added again
+     */
+    private static void addPrefixes(HashMap<String, int[]> pojosByInitials, int[] initials, int pojo, int[] skip) {
+        for (int length = MIN_LENGTH; length <= Math.min(initials.length, MAX_LENGTH); length++) {
+            if (skip != null && samePrefix(initials, skip, length)) {
+                continue;
+            }
+            String key = new String(initials, 0, length);
+            int[] pojoIndices = pojosByInitials.get(key);
+            if (pojoIndices == null) {
+                pojoIndices = new int[4];
+            } else if (pojoIndices[0] + 1 == pojoIndices.length) {
+                pojoIndices = Arrays.copyOf(pojoIndices, 2 * pojoIndices.length);
+            }
+            pojoIndices[++pojoIndices[0]] = pojo;
+            pojosByInitials.put(key, pojoIndices);
+        }
+    }
+
+    private static boolean samePrefix(int[] a, int[] b, int length) {
+        if (a.length < length || b.length < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param query normalized code points of the query
+     * @return indices of the pojos whose initials start with the query, in increasing order
+     */
+    int[] select(int[] query) {
+        if (query.length < MIN_LENGTH || query.length > MAX_LENGTH) {
+            return NO_POJO;
+        }
+        int[] lower = new int[query.length];
+        for (int i = 0; i < query.length; i++) {
+            lower[i] = Character.toLowerCase(query[i]);
+        }
+        int[] pojoIndices = pojosByInitials.get(new String(lower, 0, lower.length));
+        return pojoIndices != null ? pojoIndices : NO_POJO;
+    }
+}
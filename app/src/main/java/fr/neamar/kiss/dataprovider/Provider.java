@@ -6,6 +6,8 @@ import android.os.Binder;
 import android.os.IBinder;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import com.amplitude.api.Amplitude;
 
 import org.json.JSONException;
@@ -13,10 +15,17 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
+import fr.neamar.kiss.KissApplication;
 import fr.neamar.kiss.MainActivity;
 import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.searcher.SearchQuery;
+import fr.neamar.kiss.utils.CoroutineUtils;
 
 public abstract class Provider<T extends Pojo> extends Service implements IProvider<T> {
     private final static String TAG = Provider.class.getSimpleName();
@@ -29,7 +38,28 @@ public abstract class Provider<T extends Pojo> extends Service implements IProvi
      * Storage for search items used by this provider
      */
     private List<T> pojos = new ArrayList<>();
+    /**
+     * Pojos by id, replaced with {@link #pojos} so that history and favorites don't scan all pojos
+     */
+    private volatile Map<String, T> pojosById = Collections.emptyMap();
     private boolean loaded = false;
+    /**
+     * Incremented each time the searchable data of this provider changes.
+     * Atomic as pojos may be modified from loaders and the UI while searches read it
+     */
+    private final AtomicLong dataVersion = new AtomicLong();
+    /**
+     * Matches of the previous query, used to narrow down the search while the user keeps typing
+     */
+    private final QueryCandidates<T> queryCandidates = new QueryCandidates<>();
+    /**
+     * Searchable fields of all pojos packed for full scans, null until built for the current data version
+     */
+    private volatile SearchArena<T> searchArena = null;
+    /**
+     * Latest data version an arena build was started for
+     */
+    private final AtomicLong arenaBuildVersion = new AtomicLong(-1);
     /**
      * Scheme used to build ids for the pojos created by this provider
      */
@@ -37,6 +67,11 @@ public abstract class Provider<T extends Pojo> extends Service implements IProvi
 
     private long start;
     private kotlinx.coroutines.Job loaderJob;
+    /**
+     * Jobs loading pojos of single packages, see {@link #trackUpdate(kotlinx.coroutines.Job)}.
+     * Only accessed from the main thread
+     */
+    private final List<kotlinx.coroutines.Job> updateJobs = new ArrayList<>();
 
     /**
      * (Re-)load the providers resources when the provider has been completely initialized
@@ -89,6 +124,24 @@ public abstract class Provider<T extends Pojo> extends Service implements IProvi
         return this.loaded;
     }
 
+    /**
+     * Consider this provider as loading until given job, updating some of its pojos, completes.
+     * Must be called from the main thread
+     */
+    void trackUpdate(kotlinx.coroutines.Job job) {
+        updateJobs.add(job);
+    }
+
+    /**
+     * Must be called from the main thread
+     *
+     * @return true while pojos are being loaded in the background, all of them or only some packages
+     */
+    public boolean isLoading() {
+        updateJobs.removeIf(job -> !job.isActive());
+        return (this.loaderJob != null && this.loaderJob.isActive()) || !updateJobs.isEmpty();
+    }
+
     public void loadOver(List<T> results) {
         long time = System.currentTimeMillis() - start;
 
@@ -104,7 +157,57 @@ public abstract class Provider<T extends Pojo> extends Service implements IProvi
         }
         // Store results
         this.loaded = true;
+        setPojos(results);
+    }
+
+    /**
+     * Use {@code results} until the actual pojos are loaded, e.g. pojos of the previous load on a cold start.
+     * Unlike {@link #loadOver(List)}, the provider is not considered loaded afterwards.
+     * Runs on the main thread, ignored once pojos are loaded.
+     *
+     * @param results pojos to search meanwhile
+     */
+    public void loadPreliminary(List<T> results) {
+        if (this.loaded) {
+            return;
+        }
+        Log.v(TAG, "Using " + results.size() + " preliminary pojos in " + this.getClass().getSimpleName());
+        setPojos(results);
+    }
+
+    /**
+     * Replace the pojos matching {@code filter} with {@code replacements}, e.g. the apps of a single
+     * updated package, instead of loading all pojos again.
+     * Runs on the main thread, like {@link #loadOver(List)}. Ignored until pojos are loaded, the
+     * running load will get the changes.
+     *
+     * @param filter       pojos to remove
+     * @param replacements pojos to add
+     */
+    void replacePojos(Predicate<? super T> filter, List<T> replacements) {
+        if (!this.loaded) {
+            return;
+        }
+        List<T> results = new ArrayList<>(pojos.size() + replacements.size());
+        for (T pojo : pojos) {
+            if (!filter.test(pojo)) {
+                results.add(pojo);
+            }
+        }
+        results.addAll(replacements);
+        Log.v(TAG, "Replaced " + (pojos.size() - results.size() + replacements.size()) + " pojos with "
+                + replacements.size() + " in " + this.getClass().getSimpleName());
+        setPojos(results);
+    }
+
+    private void setPojos(List<T> results) {
         this.pojos = results;
+        this.pojosById = indexById(results);
+        // must happen after pojos are updated, so a search never stores matches from old pojos with the new version
+        invalidateCandidates();
+        KissApplication.getApplication(this).getDataHandler().getSearchResultCache().invalidate();
+        // loadOver runs on the main thread, build the arena in the background before the next search needs it
+        buildSearchArenaAsync(getDataVersion());
 
         // Broadcast this event
         Intent i = new Intent(MainActivity.LOAD_OVER);
@@ -130,15 +233,166 @@ public abstract class Provider<T extends Pojo> extends Service implements IProvi
      * @return null if not found
      */
     public T findById(String id) {
+        return pojosById.get(id);
+    }
+
+    private static <T extends Pojo> Map<String, T> indexById(List<T> pojos) {
+        Map<String, T> index = new HashMap<>(pojos.size() * 4 / 3 + 1);
         for (T pojo : pojos) {
-            if (pojo.id.equals(id)) {
-                return pojo;
-            }
+            // keep the first pojo of an id, like a scan would
+            index.putIfAbsent(pojo.id, pojo);
+        }
+        return index;
+    }
+
+    /**
+     * @return version of the searchable data of this provider, changes whenever pojos are reloaded or modified
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Forget matches of previous queries.
+     * Must be called when searchable data of existing pojos changes, e.g. tags or exclusions.
+     */
+    public void invalidateCandidates() {
+        dataVersion.incrementAndGet();
+        queryCandidates.clear();
+        searchArena = null;
+    }
+
+    /**
+     * Searchable fields of the pojos of this provider, needed to use {@link #getCandidates(int[], long)}.
+     * Pojos are then also packed in a {@link SearchArena} for full scans.
+     *
+     * @return fields, null if this provider doesn't search its pojos with candidates
+     */
+    @Nullable
+    SearchableFields<T> getSearchableFields() {
+        return null;
+    }
+
+    /**
+     * @return true if this provider scores the pojos whose initials or one of whose words start with
+     * the query first, see {@link #getPrefixCandidates(int[], long)}. Its arenas then also pack an
+     * {@link InitialsIndex} and a {@link WordPrefixTrie}
+     */
+    boolean scoresPrefixesFirst() {
+        return false;
+    }
+
+    /**
+     * Get pojos that need to be scored for a query.
+     * If the query extends the previous one and data did not change in between, only the previous
+     * matches are returned, otherwise the pojos of the {@link SearchArena} having all characters of the query.
+     *
+     * @param query       normalized code points of the query
+     * @param dataVersion data version read by the caller before the search started
+     * @return pojos to score
+     */
+    SearchCandidates<T> getCandidates(int[] query, long dataVersion) {
+        SearchableFields<T> fields = getSearchableFields();
+        if (fields == null) {
+            throw new IllegalStateException(getClass().getSimpleName() + " has no searchable fields");
+        }
+        List<T> candidates = queryCandidates.get(query, dataVersion);
+        if (candidates != null) {
+            return SearchCandidates.of(candidates, fields);
+        }
+        SearchArena<T> arena = getSearchArena(dataVersion);
+        return arena != null ? arena.select(query) : SearchCandidates.of(getPojos(), fields);
+    }
+
+    /**
+     * Get pojos for a query made of initial consonants only, like "ㅋㅋㅇ", with a lookup in the
+     * {@link ChosungIndex} of the {@link SearchArena} instead of scoring all candidates.
+     *
+     * @param query       query of the search
+     * @param dataVersion data version read by the caller before the search started
+     * @return pojos whose chosung contains the query, null if the query isn't made of initial
+     * consonants only or there is no arena for this data version
+     */
+    @Nullable
+    SearchCandidates<T> getChosungCandidates(SearchQuery query, long dataVersion) {
+        if (!query.hasHangulInitial) {
+            return null;
         }
+        SearchArena<T> arena = getSearchArena(dataVersion);
+        return arena != null ? arena.selectChosung(query.normalized.codePoints) : null;
+    }
 
+    /**
+     * Get pojos whose initials start with the query, like "gm" for "Google Maps", or having a word
+     * starting with the query, with lookups in the {@link InitialsIndex} and {@link WordPrefixTrie}
+     * of the {@link SearchArena}. They are usually the best matches, a provider can score and
+     * publish them before scoring the other candidates.
+     *
+     * @param query       normalized code points of the query
+     * @param dataVersion data version read by the caller before the search started
+     * @return pojos whose initials or a word start with the query, null if this provider doesn't
+     * {@link #scoresPrefixesFirst()} or there is no arena for this data version
+     */
+    @Nullable
+    SearchCandidates<T> getPrefixCandidates(int[] query, long dataVersion) {
+        SearchArena<T> arena = getSearchArena(dataVersion);
+        return arena != null ? arena.selectPrefixes(query) : null;
+    }
+
+    /**
+     * Get the arena of the current pojos. Searches never wait for an arena to be built, a build is
+     * started in the background instead and the search scans the pojos meanwhile
+     *
+     * @param dataVersion data version read by the caller before the search started
+     * @return arena, null if this provider has no searchable fields, the arena is not built yet or data changed since {@code dataVersion}
+     */
+    @Nullable
+    private SearchArena<T> getSearchArena(long dataVersion) {
+        SearchArena<T> arena = searchArena;
+        if (arena != null && arena.dataVersion == dataVersion) {
+            return arena;
+        }
+        buildSearchArenaAsync(dataVersion);
         return null;
     }
 
+    /**
+     * Build the arena of given data version in the background, unless a build was already started for it
+     */
+    private void buildSearchArenaAsync(long dataVersion) {
+        if (getSearchableFields() == null) {
+            return;
+        }
+        long started = arenaBuildVersion.get();
+        if (started >= dataVersion || !arenaBuildVersion.compareAndSet(started, dataVersion)) {
+            return;
+        }
+        CoroutineUtils.runAsync(() -> buildSearchArena(dataVersion));
+    }
+
+    private synchronized void buildSearchArena(long dataVersion) {
+        SearchArena<T> arena = searchArena;
+        if ((arena == null || arena.dataVersion != dataVersion) && dataVersion == getDataVersion()) {
+            arena = SearchArena.build(pojos, getSearchableFields(), dataVersion, scoresPrefixesFirst());
+            // data may have changed while building, never publish an outdated arena
+            if (dataVersion == getDataVersion()) {
+                searchArena = arena;
+            }
+        }
+    }
+
+    /**
+     * Remember all matches of a query, so that following keystrokes only need to rescore them.
+     * Only call this once all candidates were scored, never for an interrupted search.
+     *
+     * @param query       normalized code points of the query
+     * @param dataVersion data version read by the caller before the search started
+     * @param matches     all pojos matching query
+     */
+    void rememberMatches(int[] query, long dataVersion, List<T> matches) {
+        queryCandidates.put(query, dataVersion, matches);
+    }
+
     @Override
     public List<T> getPojos() {
         return Collections.unmodifiableList(pojos);
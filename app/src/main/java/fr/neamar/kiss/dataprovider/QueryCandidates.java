@@ -0,0 +1,65 @@
+package fr.neamar.kiss.dataprovider;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+import fr.neamar.kiss.pojo.Pojo;
+
+/**
+ * Remembers which pojos of a provider matched the previous query.
+ * <p>
+ * Fuzzy matching requires every query character to be found in order, so anything matching
+ * "spot" also matches "spo": when the user keeps typing, only the previous matches need to be
+ * scored again instead of every pojo of the provider.
+ * Stored matches are only valid for the data version of the provider they were computed with.
+ */
+class QueryCandidates<T extends Pojo> {
+    private int[] query = null;
+    private long dataVersion = -1;
+    private List<T> matches = null;
+
+    /**
+     * @param query       normalized code points of the new query
+     * @param dataVersion current data version of the provider
+     * @return matches of the previous query if {@code query} extends it, null if all pojos need to be scored
+     */
+    @Nullable
+    synchronized List<T> get(int[] query, long dataVersion) {
+        if (this.matches == null || this.dataVersion != dataVersion || !extendsPrevious(query)) {
+            return null;
+        }
+        return this.matches;
+    }
+
+    /**
+     * Store matches of a complete (not cancelled) scan.
+     *
+     * @param query       normalized code points of the query
+     * @param dataVersion data version of the provider when the scan started
+     * @param matches     all pojos matching the query, in provider order
+     */
+    synchronized void put(int[] query, long dataVersion, List<T> matches) {
+        this.query = query;
+        this.dataVersion = dataVersion;
+        this.matches = matches;
+    }
+
+    synchronized void clear() {
+        this.query = null;
+        this.dataVersion = -1;
+        this.matches = null;
+    }
+
+    private boolean extendsPrevious(int[] query) {
+        if (this.query.length > query.length) {
+            return false;
+        }
+        for (int i = 0; i < this.query.length; i++) {
+            if (Character.toLowerCase(this.query[i]) != Character.toLowerCase(query[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,236 @@
+package fr.neamar.kiss.dataprovider;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
+import fr.neamar.kiss.utils.fuzzy.MatchInfo;
+
+/**
+ * Searchable fields of all pojos of a provider, packed in a few flat arrays.
+ * <p>
+ * Code points of every field are copied one after the other in a single array, with offset,
+ * length and signature of each field in parallel arrays: a full scan reads memory sequentially
+ * instead of following pointers to a separate {@link StringNormalizer.Result} and {@code int[]}
+ * for each field of each pojo. Field {@code f} of pojo {@code i} is stored in slot
+ * {@code i * fieldCount + f}.
+ * <p>
+ * A {@link CodePointIndex} is built along with the arena, so that queries of
+ * {@link #MIN_INDEXED_QUERY_LENGTH} characters or more only score the pojos having all of their
+ * characters, and a {@link ChosungIndex}, so that queries made of initial consonants only are
+ * answered with a lookup. Arenas of providers whose hits are displayed first also have an
+ * {@link InitialsIndex} and a {@link WordPrefixTrie}, to score the pojos whose initials or one of
+ * whose words start with the query before all others.
+ * <p>
+ * An arena is a snapshot of the pojos for one data version of its provider and is never modified,
+ * so it can be shared by concurrent searches.
+ */
+final class SearchArena<T extends Pojo> implements SearchCandidates<T> {
+    /**
+     * Length of slots of fields without value
+     */
+    private static final int NO_FIELD = -1;
+    /**
+     * Shorter queries match most pojos, a full scan is cheaper than intersecting posting lists
+     */
+    static final int MIN_INDEXED_QUERY_LENGTH = 3;
+
+    final long dataVersion;
+    private final List<T> pojos;
+    private final int fieldCount;
+    private final int[] codePoints;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final long[] signatures;
+    private final CodePointIndex index;
+    private final ChosungIndex chosungIndex;
+    /**
+     * Null if the arena was built without prefixes
+     */
+    @Nullable
+    private final InitialsIndex initialsIndex;
+    /**
+     * Null if the arena was built without prefixes
+     */
+    @Nullable
+    private final WordPrefixTrie wordPrefixTrie;
+
+    private SearchArena(long dataVersion, List<T> pojos, int fieldCount, int[] codePoints, int[] offsets, int[] lengths, long[] signatures, boolean prefixes) {
+        this.dataVersion = dataVersion;
+        this.pojos = pojos;
+        this.fieldCount = fieldCount;
+        this.codePoints = codePoints;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.signatures = signatures;
+        this.index = CodePointIndex.build(codePoints, offsets, lengths, fieldCount);
+        this.chosungIndex = ChosungIndex.build(pojos);
+        this.initialsIndex = prefixes ? InitialsIndex.build(pojos) : null;
+        this.wordPrefixTrie = prefixes ? WordPrefixTrie.build(codePoints, offsets, lengths, fieldCount) : null;
+    }
+
+    /**
+     * @param pojos       all pojos of a provider
+     * @param fields      searchable fields of the pojos
+     * @param dataVersion data version of the provider for these pojos
+     */
+    static <T extends Pojo> SearchArena<T> build(List<T> pojos, SearchableFields<T> fields, long dataVersion) {
+        return build(pojos, fields, dataVersion, false);
+    }
+
+    /**
+     * @param pojos       all pojos of a provider
+     * @param fields      searchable fields of the pojos
+     * @param dataVersion data version of the provider for these pojos
+     * @param prefixes    true to build the indexes needed by {@link #selectPrefixes(int[])}
+     */
+    static <T extends Pojo> SearchArena<T> build(List<T> pojos, SearchableFields<T> fields, long dataVersion, boolean prefixes) {
+        // copy, so that the arena stays consistent if the provider gets new pojos
+        List<T> snapshot = new ArrayList<>(pojos);
+        int fieldCount = fields.count();
+        int slotCount = snapshot.size() * fieldCount;
+
+        int totalLength = 0;
+        for (T pojo : snapshot) {
+            for (int field = 0; field < fieldCount; field++) {
+                StringNormalizer.Result text = fields.get(pojo, field);
+                if (text != null) {
+                    totalLength += text.codePoints.length;
+                }
+            }
+        }
+
+        int[] codePoints = new int[totalLength];
+        int[] offsets = new int[slotCount];
+        int[] lengths = new int[slotCount];
+        long[] signatures = new long[slotCount];
+        int offset = 0;
+        int slot = 0;
+        for (T pojo : snapshot) {
+            for (int field = 0; field < fieldCount; field++, slot++) {
+                StringNormalizer.Result text = fields.get(pojo, field);
+                if (text == null) {
+                    lengths[slot] = NO_FIELD;
+                    continue;
+                }
+                System.arraycopy(text.codePoints, 0, codePoints, offset, text.codePoints.length);
+                offsets[slot] = offset;
+                lengths[slot] = text.codePoints.length;
+                signatures[slot] = text.signature;
+                offset += text.codePoints.length;
+            }
+        }
+        return new SearchArena<>(dataVersion, snapshot, fieldCount, codePoints, offsets, lengths, signatures, prefixes);
+    }
+
+    /**
+     * @param query normalized code points of the query
+     * @return pojos of this arena that may match the query, all of them for short queries
+     */
+    SearchCandidates<T> select(int[] query) {
+        if (query.length < MIN_INDEXED_QUERY_LENGTH) {
+            return this;
+        }
+        return view(index.select(query));
+    }
+
+    /**
+     * @param query normalized code points of the query
+     * @return pojos whose chosung contains the query, null if the query isn't made of initial
+     * consonants only, see {@link ChosungIndex#select(int[])}
+     */
+    @Nullable
+    SearchCandidates<T> selectChosung(int[] query) {
+        int[] selected = chosungIndex.select(query);
+        return selected != null ? view(selected) : null;
+    }
+
+    /**
+     * @param query normalized code points of the query
+     * @return pojos whose initials start with the query, e.g. "gm" for "Google Maps", and pojos
+     * having a word starting with the query, see {@link InitialsIndex#select(int[])} and
+     * {@link WordPrefixTrie#select(int[])}. Null if the arena was built without prefixes
+     */
+    @Nullable
+    SearchCandidates<T> selectPrefixes(int[] query) {
+        if (initialsIndex == null || wordPrefixTrie == null) {
+            return null;
+        }
+        return view(union(initialsIndex.select(query), wordPrefixTrie.select(query)));
+    }
+
+    /**
+     * @param a indices in increasing order
+     * @param b indices in increasing order
+     * @return indices of both, in increasing order and each only once
+     */
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                result[count++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                result[count++] = b[j++];
+            } else {
+                result[count++] = a[i++];
+                j++;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private SearchCandidates<T> view(int[] selected) {
+        return new SearchCandidates<T>() {
+            @Override
+            public int size() {
+                return selected.length;
+            }
+
+            @Override
+            public T getPojo(int index) {
+                return SearchArena.this.getPojo(selected[index]);
+            }
+
+            @Nullable
+            @Override
+            public MatchInfo match(FuzzyScore fuzzyScore, int index, int field) {
+                return SearchArena.this.match(fuzzyScore, selected[index], field);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return pojos.size();
+    }
+
+    @Override
+    public T getPojo(int index) {
+        return pojos.get(index);
+    }
+
+    @Nullable
+    @Override
+    public MatchInfo match(FuzzyScore fuzzyScore, int index, int field) {
+        int slot = index * fieldCount + field;
+        int length = lengths[slot];
+        if (length == NO_FIELD) {
+            return null;
+        }
+        return fuzzyScore.match(codePoints, offsets[slot], length, signatures[slot]);
+    }
+}
@@ -0,0 +1,50 @@
+package fr.neamar.kiss.dataprovider;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
+import fr.neamar.kiss.utils.fuzzy.MatchInfo;
+
+/**
+ * Pojos a provider needs to score for a query, accessed by index so that they can be
+ * read from a {@link SearchArena} as well as from a list of pojos.
+ */
+interface SearchCandidates<T extends Pojo> {
+    int size();
+
+    T getPojo(int index);
+
+    /**
+     * @param fuzzyScore scorer of the query
+     * @param index      index of the candidate
+     * @param field      index of the field, see {@link SearchableFields}
+     * @return match of given field, null if the candidate has no such field
+     */
+    @Nullable
+    MatchInfo match(FuzzyScore fuzzyScore, int index, int field);
+
+    static <T extends Pojo> SearchCandidates<T> of(List<T> pojos, SearchableFields<T> fields) {
+        return new SearchCandidates<T>() {
+            @Override
+            public int size() {
+                return pojos.size();
+            }
+
+            @Override
+            public T getPojo(int index) {
+                return pojos.get(index);
+            }
+
+            @Nullable
+            @Override
+            public MatchInfo match(FuzzyScore fuzzyScore, int index, int field) {
+                StringNormalizer.Result text = fields.get(pojos.get(index), field);
+                return text != null ? fuzzyScore.match(text) : null;
+            }
+        };
+    }
+}
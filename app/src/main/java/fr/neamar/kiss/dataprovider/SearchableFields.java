@@ -0,0 +1,53 @@
+package fr.neamar.kiss.dataprovider;
+
+import androidx.annotation.Nullable;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.PojoWithTags;
+
+/**
+ * Normalized fields of a pojo that a provider matches a query against, e.g. name and tags.
+ * Fields are identified by their index, from 0 to {@link #count()} (exclusive).
+ */
+interface SearchableFields<T extends Pojo> {
+    /**
+     * Fields of {@link #nameAndTags()}
+     */
+    int NAME = 0;
+    int TAGS = 1;
+    int CHOSUNG = 2;
+
+    int count();
+
+    /**
+     * @return normalized value of given field, null if the pojo has no such value
+     */
+    @Nullable
+    StringNormalizer.Result get(T pojo, int field);
+
+    /**
+     * @return fields {@link #NAME}, {@link #TAGS} and {@link #CHOSUNG} of the name
+     */
+    static <T extends PojoWithTags> SearchableFields<T> nameAndTags() {
+        return new SearchableFields<T>() {
+            @Override
+            public int count() {
+                return 3;
+            }
+
+            @Nullable
+            @Override
+            public StringNormalizer.Result get(T pojo, int field) {
+                switch (field) {
+                    case NAME:
+                        return pojo.normalizedName;
+                    case TAGS:
+                        return pojo.getNormalizedTags();
+                    default:
+                        return pojo.normalizedChosung;
+                }
+            }
+        };
+    }
+}
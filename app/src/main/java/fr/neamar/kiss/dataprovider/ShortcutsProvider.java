@@ -8,6 +8,8 @@ import android.util.Log;
 import android.widget.Toast;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -15,17 +17,21 @@ import fr.neamar.kiss.BuildConfig;
 import fr.neamar.kiss.DataHandler;
 import fr.neamar.kiss.KissApplication;
 import fr.neamar.kiss.R;
+import fr.neamar.kiss.loader.LoadShortcutsPojosCoroutine;
 import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.BestMatch;
 import fr.neamar.kiss.pojo.ShortcutPojo;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
+import fr.neamar.kiss.utils.AsyncCallback;
+import fr.neamar.kiss.utils.CoroutineUtils;
 import fr.neamar.kiss.utils.ShortcutUtil;
-import fr.neamar.kiss.utils.fuzzy.FuzzyFactory;
 import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
-import fr.neamar.kiss.utils.fuzzy.MatchInfo;
 
 public class ShortcutsProvider extends Provider<ShortcutPojo> {
     private static boolean notifiedKissNotDefaultLauncher = false;
     protected static final String TAG = ShortcutsProvider.class.getSimpleName();
+    private static final SearchableFields<ShortcutPojo> SEARCHABLE_FIELDS = SearchableFields.nameAndTags();
 
     @Override
     public void onCreate() {
@@ -40,7 +46,7 @@ public class ShortcutsProvider extends Provider<ShortcutPojo> {
                     if (BuildConfig.DEBUG) {
                         Log.d(TAG, "Shortcuts changed for " + packageName);
                     }
-                    KissApplication.getApplication(ShortcutsProvider.this).getDataHandler().reloadShortcuts();
+                    KissApplication.getApplication(ShortcutsProvider.this).getDataHandler().updateShortcutsPackage(packageName);
                 }
             }
 
@@ -70,7 +76,7 @@ public class ShortcutsProvider extends Provider<ShortcutPojo> {
 
         try {
             // Use Kotlin Coroutines version for better performance and maintainability
-            this.initializeCoroutines(new fr.neamar.kiss.loader.LoadShortcutsPojosCoroutine(this));
+            this.initializeCoroutines(new LoadShortcutsPojosCoroutine(this));
         } catch (IllegalStateException e) {
             if (!notifiedKissNotDefaultLauncher) {
                 // Only display this message once per process
@@ -81,37 +87,141 @@ public class ShortcutsProvider extends Provider<ShortcutPojo> {
         }
     }
 
+    /**
+     * Load the shortcuts of a single package again, after it was installed, updated or changed,
+     * instead of listing all shortcuts. Shortcuts stored in database are kept.
+     *
+     * @param packageName package that changed
+     */
+    public void updatePackage(String packageName) {
+        LoadShortcutsPojosCoroutine loader = new LoadShortcutsPojosCoroutine(this);
+        trackUpdate(CoroutineUtils.runAsyncWithResult(() -> loader.loadPackage(packageName), new AsyncCallback<List<ShortcutPojo>>() {
+            @Override
+            public void onResult(List<ShortcutPojo> shortcuts) {
+                replacePojos(shortcut -> shortcut.isOreoShortcut() && packageName.equals(shortcut.packageName), shortcuts);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                Log.w(TAG, "Unable to update shortcuts of " + packageName + ", reloading all shortcuts", error);
+                reload();
+            }
+        }));
+    }
+
+    /**
+     * Remove all shortcuts of a package, e.g. once it was uninstalled or excluded
+     *
+     * @param packageName package whose shortcuts are removed
+     */
+    public void removePackage(String packageName) {
+        replacePojos(shortcut -> packageName.equals(shortcut.packageName), Collections.emptyList());
+    }
+
     @Override
-    public void requestResults(String query, Searcher searcher) {
-        Set<String> excludedFavoriteIds = KissApplication.getApplication(this).getDataHandler().getExcludedFavorites();
+    SearchableFields<ShortcutPojo> getSearchableFields() {
+        return SEARCHABLE_FIELDS;
+    }
 
-        StringNormalizer.Result queryNormalized = StringNormalizer.normalizeWithResult(query, false);
+    @Override
+    boolean scoresPrefixesFirst() {
+        return true;
+    }
+
+    @Override
+    public void requestResults(SearchQuery query, Searcher searcher) {
+        StringNormalizer.Result queryNormalized = query.normalized;
 
         if (queryNormalized.codePoints.length == 0) {
             return;
         }
 
-        FuzzyScore fuzzyScore = FuzzyFactory.createFuzzyScore(this, queryNormalized.codePoints);
+        FuzzyScore fuzzyScore = query.createFuzzyScore();
+        long dataVersion = getDataVersion();
+        List<ShortcutPojo> matches = new ArrayList<>();
+
+        // queries made of initial consonants only are answered by the chosung index
+        SearchCandidates<ShortcutPojo> candidates = getChosungCandidates(query, dataVersion);
+        boolean chosungOnly = candidates != null;
+        Set<ShortcutPojo> scored = Collections.emptySet();
+        if (!chosungOnly) {
+            candidates = getCandidates(queryNormalized.codePoints, dataVersion);
+
+            // pojos whose initials or a word start with the query are usually the best matches,
+            // display them before scoring the other candidates
+            SearchCandidates<ShortcutPojo> firstCandidates = getPrefixCandidates(queryNormalized.codePoints, dataVersion);
+            if (firstCandidates != null && firstCandidates.size() > 0) {
+                if (!addMatches(query, fuzzyScore, firstCandidates, false, scored, matches, searcher)) {
+                    return;
+                }
+                searcher.publishFirstResults();
+                scored = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (int i = 0; i < firstCandidates.size(); i++) {
+                    scored.add(firstCandidates.getPojo(i));
+                }
+            }
+        }
+        if (!addMatches(query, fuzzyScore, candidates, chosungOnly, scored, matches, searcher)) {
+            return;
+        }
+
+        // the index misses scattered matches, following keystrokes can't start from its matches
+        if (!chosungOnly) {
+            rememberMatches(queryNormalized.codePoints, dataVersion, matches);
+        }
+    }
 
-        for (ShortcutPojo pojo : getPojos()) {
+    /**
+     * Score candidates and add their hits to the searcher
+     *
+     * @param chosungOnly true if the query is made of initial consonants only
+     * @param scored      candidates to skip, already scored
+     * @param matches     list to add all matching candidates to
+     * @return false if the search was cancelled
+     */
+    private boolean addMatches(SearchQuery query, FuzzyScore fuzzyScore, SearchCandidates<ShortcutPojo> candidates, boolean chosungOnly,
+                               Set<ShortcutPojo> scored, List<ShortcutPojo> matches, Searcher searcher) {
+        BestMatch bestMatch = new BestMatch();
+        int threshold = searcher.getAdmissionThreshold();
+        for (int i = 0; i < candidates.size(); i++) {
+            ShortcutPojo pojo = candidates.getPojo(i);
+            if (scored.contains(pojo)) {
+                continue;
+            }
             // exclude favorites from results
-            if (excludedFavoriteIds.contains(pojo.getFavoriteId())) {
+            if (query.excludedFavoriteIds.contains(pojo.getFavoriteId())) {
                 continue;
             }
 
-            MatchInfo matchInfo = fuzzyScore.match(pojo.normalizedName.codePoints);
-            boolean match = pojo.updateMatchingRelevance(matchInfo, false);
+            bestMatch.reset();
+            if (!chosungOnly) {
+                bestMatch.update(candidates.match(fuzzyScore, i, SearchableFields.NAME));
+
+                // check relevance for tags
+                bestMatch.update(candidates.match(fuzzyScore, i, SearchableFields.TAGS));
+            }
 
-            // check relevance for tags
-            if (pojo.getNormalizedTags() != null) {
-                matchInfo = fuzzyScore.match(pojo.getNormalizedTags().codePoints);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
+            // check relevance for initial consonants of Korean names
+            if (query.hasHangulInitial) {
+                bestMatch.update(candidates.match(fuzzyScore, i, SearchableFields.CHOSUNG));
             }
 
-            if (match && !searcher.addResult(pojo)) {
-                return;
+            if (bestMatch.isMatch()) {
+                matches.add(pojo);
+                // the searcher would reject this hit, there are enough better ones
+                if (bestMatch.getScore() < threshold) {
+                    if (searcher.isCancelled()) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (!searcher.addResult(bestMatch.toScoredPojo(pojo))) {
+                    return false;
+                }
+                threshold = searcher.getAdmissionThreshold();
             }
         }
+        return true;
     }
 
     public List<ShortcutPojo> getPinnedShortcuts() {
@@ -121,7 +231,6 @@ public class ShortcutsProvider extends Provider<ShortcutPojo> {
         for (ShortcutPojo pojo : pojos) {
             if (!pojo.isPinned()) continue;
 
-            pojo.relevance = 0;
             records.add(pojo);
         }
         return records;
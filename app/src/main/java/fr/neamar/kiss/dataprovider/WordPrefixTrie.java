@@ -0,0 +1,273 @@
+package fr.neamar.kiss.dataprovider;
+
+import java.util.Arrays;
+
+/**
+ * Radix trie over the words of the searchable fields of all pojos of an arena, to find the pojos
+ * having a word starting with the query in O(query length) plus the number of such words.
+ * Most queries are the start of a word of the name of what the user is looking for.
+ * <p>
+ * Words start after whitespace or at an uppercase letter following a lowercase one, like the
+ * separator and camel case bonuses of the fuzzy scorers, and end at the next whitespace. They are
+ * compared lowercase.
+ * <p>
+ * Words are sorted, so the words below a node are a range of the sorted words and the trie only
+ * stores that range for each node. Nodes, their children and edge labels are kept in int arrays.
+ */
+final class WordPrefixTrie {
+    /**
+     * Single characters start words of too many pojos to be worth looking up
+     */
+    static final int MIN_LENGTH = 2;
+
+    private static final int[] NO_POJO = new int[0];
+
+    /**
+     * Lowercase code points of all words, one after the other
+     */
+    private final int[] chars;
+    /**
+     * Pojo of each word, in word order
+     */
+    private final int[] wordPojos;
+
+    // Nodes: edge label is chars[labelStart] to chars[labelStart + labelLength] (exclusive),
+    // words below the node are wordPojos[rangeStart] to wordPojos[rangeEnd] (exclusive),
+    // children are childNodes[childStart] to childNodes[childStart + childCount] (exclusive),
+    // sorted by childChars, their first character
+    private int[] labelStart = new int[16];
+    private int[] labelLength = new int[16];
+    private int[] rangeStart = new int[16];
+    private int[] rangeEnd = new int[16];
+    private int[] childStart = new int[16];
+    private int[] childCount = new int[16];
+    private int nodeCount = 0;
+    private int[] childChars = new int[16];
+    private int[] childNodes = new int[16];
+    private int childSlotCount = 0;
+
+    /**
+     * Temporary while building, start and length of each sorted word in {@link #chars}
+     */
+    private int[] wordStart;
+    private int[] wordLength;
+
+    private WordPrefixTrie(int[] chars, int[] wordStart, int[] wordLength, int[] wordPojos) {
+        this.chars = chars;
+        this.wordStart = wordStart;
+        this.wordLength = wordLength;
+        this.wordPojos = wordPojos;
+        buildNode(0, wordPojos.length, 0);
+        this.wordStart = null;
+        this.wordLength = null;
+        labelStart = Arrays.copyOf(labelStart, nodeCount);
+        labelLength = Arrays.copyOf(labelLength, nodeCount);
+        rangeStart = Arrays.copyOf(rangeStart, nodeCount);
+        rangeEnd = Arrays.copyOf(rangeEnd, nodeCount);
+        childStart = Arrays.copyOf(childStart, nodeCount);
+        childCount = Arrays.copyOf(childCount, nodeCount);
+        childChars = Arrays.copyOf(childChars, childSlotCount);
+        childNodes = Arrays.copyOf(childNodes, childSlotCount);
+    }
+
+    /**
+     * @param codePoints all code points of the arena
+     * @param offsets    offset of each slot in {@code codePoints}
+     * @param lengths    length of each slot, negative if the slot has no value
+     * @param fieldCount number of slots per pojo
+     */
+    static WordPrefixTrie build(int[] codePoints, int[] offsets, int[] lengths, int fieldCount) {
+        int[] chars = new int[16];
+        int charCount = 0;
+        int[] starts = new int[16];
+        int[] wordLengths = new int[16];
+        int[] pojos = new int[16];
+        int wordCount = 0;
+
+        for (int slot = 0; slot < lengths.length; slot++) {
+            int end = offsets[slot] + lengths[slot];
+            boolean prevSeparator = true;
+            boolean prevLower = false;
+            for (int i = offsets[slot]; i < end; i++) {
+                int codePoint = codePoints[i];
+                int lower = Character.toLowerCase(codePoint);
+                int upper = Character.toUpperCase(codePoint);
+                boolean isSeparator = Character.isWhitespace(codePoint);
+                if (!isSeparator && (prevSeparator || (prevLower && codePoint == upper && lower != upper))) {
+                    int length = 0;
+                    while (i + length < end && !Character.isWhitespace(codePoints[i + length])) {
+                        length++;
+                    }
+                    if (charCount + length > chars.length) {
+                        chars = Arrays.copyOf(chars, Math.max(2 * chars.length, charCount + length));
+                    }
+                    for (int c = 0; c < length; c++) {
+                        chars[charCount + c] = Character.toLowerCase(codePoints[i + c]);
+                    }
+                    if (wordCount == starts.length) {
+                        starts = Arrays.copyOf(starts, 2 * wordCount);
+                        wordLengths = Arrays.copyOf(wordLengths, 2 * wordCount);
+                        pojos = Arrays.copyOf(pojos, 2 * wordCount);
+                    }
+                    starts[wordCount] = charCount;
+                    wordLengths[wordCount] = length;
+                    pojos[wordCount] = slot / fieldCount;
+                    wordCount++;
+                    charCount += length;
+                }
+                prevLower = codePoint == lower && lower != upper;
+                prevSeparator = isSeparator;
+            }
+        }
+
+        // sort words, keeping their pojo
+        final int[] allChars = chars;
+        final int[] allStarts = starts;
+        final int[] allLengths = wordLengths;
+        Integer[] order = new Integer[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(allChars, allStarts[a], allLengths[a], allStarts[b], allLengths[b]));
+        int[] sortedStarts = new int[wordCount];
+        int[] sortedLengths = new int[wordCount];
+        int[] sortedPojos = new int[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            sortedStarts[i] = starts[order[i]];
+            sortedLengths[i] = wordLengths[order[i]];
+            sortedPojos[i] = pojos[order[i]];
+        }
+        return new WordPrefixTrie(Arrays.copyOf(chars, charCount), sortedStarts, sortedLengths, sortedPojos);
+    }
+
+    private static int compare(int[] chars, int startA, int lengthA, int startB, int lengthB) {
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            int diff = Integer.compare(chars[startA + i], chars[startB + i]);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return Integer.compare(lengthA, lengthB);
+    }
+
+    /**
+     * Build the node for sorted words {@code from} to {@code to} (exclusive), which all share their
+     * first {@code depth} characters.
+     *
+     * @return index of the node
+     */
+    private int buildNode(int from, int to, int depth) {
+        int node = nodeCount++;
+        if (node == labelStart.length) {
+            int size = 2 * node;
+            labelStart = Arrays.copyOf(labelStart, size);
+            labelLength = Arrays.copyOf(labelLength, size);
+            rangeStart = Arrays.copyOf(rangeStart, size);
+            rangeEnd = Arrays.copyOf(rangeEnd, size);
+            childStart = Arrays.copyOf(childStart, size);
+            childCount = Arrays.copyOf(childCount, size);
+        }
+        rangeStart[node] = from;
+        rangeEnd[node] = to;
+
+        // extend the edge while all words continue with the same character: words are sorted,
+        // so comparing the first and last word is enough, and the shortest word comes first.
+        // The root keeps an empty label
+        int end = depth;
+        if (node != 0) {
+            while (wordLength[from] > end && charAt(to - 1, end) == charAt(from, end)) {
+                end++;
+            }
+        }
+        labelStart[node] = from < to ? wordStart[from] + depth : 0;
+        labelLength[node] = end - depth;
+
+        // children, grouped by their first character, words ending here come first
+        int first = from;
+        while (first < to && wordLength[first] == end) {
+            first++;
+        }
+        int count = 0;
+        for (int i = first; i < to; i++) {
+            if (i == first || charAt(i, end) != charAt(i - 1, end)) {
+                count++;
+            }
+        }
+        int slot = childSlotCount;
+        childSlotCount += count;
+        if (childSlotCount > childNodes.length) {
+            childChars = Arrays.copyOf(childChars, Math.max(2 * childNodes.length, childSlotCount));
+            childNodes = Arrays.copyOf(childNodes, childChars.length);
+        }
+        childStart[node] = slot;
+        childCount[node] = count;
+        int groupStart = first;
+        for (int i = first + 1; i <= to; i++) {
+            if (i == to || charAt(i, end) != charAt(groupStart, end)) {
+                // arrays may grow while building the child, only write them afterwards
+                int child = buildNode(groupStart, i, end);
+                childChars[slot] = charAt(groupStart, end);
+                childNodes[slot] = child;
+                slot++;
+                groupStart = i;
+            }
+        }
+        return node;
+    }
+
+    private int charAt(int word, int index) {
+        return chars[wordStart[word] + index];
+    }
+
+    /**
+     * @param query normalized code points of the query
+     * @return indices of the pojos having a word starting with the query, in increasing order
+     */
+    int[] select(int[] query) {
+        if (query.length < MIN_LENGTH || nodeCount == 0) {
+            return NO_POJO;
+        }
+        int node = 0;
+        int matched = 0;
+        while (true) {
+            // match the edge label of the node
+            int length = Math.min(labelLength[node], query.length - matched);
+            for (int i = 0; i < length; i++) {
+                if (chars[labelStart[node] + i] != Character.toLowerCase(query[matched + i])) {
+                    return NO_POJO;
+                }
+            }
+            matched += length;
+            if (matched == query.length) {
+                return pojos(rangeStart[node], rangeEnd[node]);
+            }
+            node = child(node, Character.toLowerCase(query[matched]));
+            if (node < 0) {
+                return NO_POJO;
+            }
+        }
+    }
+
+    private int child(int node, int c) {
+        int from = childStart[node];
+        int to = from + childCount[node];
+        int index = Arrays.binarySearch(childChars, from, to, c);
+        return index >= 0 ? childNodes[index] : -1;
+    }
+
+    /**
+     * @return distinct pojos of words {@code from} to {@code to} (exclusive), in increasing order
+     */
+    private int[] pojos(int from, int to) {
+        int[] pojos = Arrays.copyOfRange(wordPojos, from, to);
+        Arrays.sort(pojos);
+        int count = 0;
+        for (int i = 0; i < pojos.length; i++) {
+            if (i == 0 || pojos[i] != pojos[i - 1]) {
+                pojos[count++] = pojos[i];
+            }
+        }
+        return count == pojos.length ? pojos : Arrays.copyOf(pojos, count);
+    }
+}
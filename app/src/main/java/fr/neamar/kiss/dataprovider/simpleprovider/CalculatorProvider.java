@@ -10,6 +10,7 @@ import java.util.regex.Pattern;
 
 import fr.neamar.kiss.pojo.SearchPojo;
 import fr.neamar.kiss.pojo.SearchPojoType;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
 import fr.neamar.kiss.utils.calculator.Calculator;
 import fr.neamar.kiss.utils.calculator.Result;
@@ -31,8 +32,8 @@ public class CalculatorProvider extends SimpleProvider<SearchPojo> {
     }
 
     @Override
-    public void requestResults(String query, Searcher searcher) {
-        String spacelessQuery = query.replaceAll("\\s+", "");
+    public void requestResults(SearchQuery query, Searcher searcher) {
+        String spacelessQuery = query.text.replaceAll("\\s+", "");
         // Now create matcher object.
         Matcher m = computableRegexp.matcher(spacelessQuery);
         if (m.find()) {
@@ -6,6 +6,7 @@ import android.content.pm.PackageManager;
 import java.util.regex.Pattern;
 
 import fr.neamar.kiss.pojo.PhonePojo;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
 
 public class PhoneProvider extends SimpleProvider<PhonePojo> {
@@ -21,10 +22,10 @@ public class PhoneProvider extends SimpleProvider<PhonePojo> {
     }
 
     @Override
-    public void requestResults(String query, Searcher searcher) {
+    public void requestResults(SearchQuery query, Searcher searcher) {
         // Append an item only if query looks like a phone number and device has phone capabilities
-        if (deviceIsPhone && PHONE_PATTERN.matcher(query).find()) {
-            searcher.addResult(getResult(query, true));
+        if (deviceIsPhone && PHONE_PATTERN.matcher(query.text).find()) {
+            searcher.addResult(getResult(query.text, true));
         }
     }
 
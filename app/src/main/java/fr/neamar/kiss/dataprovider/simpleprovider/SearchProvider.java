@@ -19,12 +19,12 @@ import fr.neamar.kiss.R;
 import fr.neamar.kiss.pojo.Pojo;
 import fr.neamar.kiss.pojo.SearchPojo;
 import fr.neamar.kiss.pojo.SearchPojoType;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
 import fr.neamar.kiss.utils.URIUtils;
 import fr.neamar.kiss.utils.URLUtils;
 
 public class SearchProvider extends SimpleProvider<SearchPojo> {
-    private final SharedPreferences prefs;
 
     public static Set<String> getDefaultSearchProviders(Context context) {
         String[] defaultSearchProviders = context.getResources().getStringArray(R.array.defaultSearchProviders);
@@ -48,7 +48,6 @@ public class SearchProvider extends SimpleProvider<SearchPojo> {
 
     public SearchProvider(Context context) {
         this.context = context.getApplicationContext();
-        this.prefs = PreferenceManager.getDefaultSharedPreferences(context);
         reload();
     }
 
@@ -83,16 +82,19 @@ public class SearchProvider extends SimpleProvider<SearchPojo> {
     }
 
     @Override
-    public void requestResults(String s, Searcher searcher) {
-        searcher.addResults(getResults(s));
+    public void requestResults(SearchQuery searchQuery, Searcher searcher) {
+        searcher.addResults(getResults(searchQuery.text, searchQuery.webSearchEnabled));
     }
 
-    private List<Pojo> getResults(String query) {
+    private List<Pojo> getResults(String query, boolean webSearchEnabled) {
         List<Pojo> records = new ArrayList<>();
 
-        if (prefs.getBoolean("enable-search", true)) {
-            for (SearchPojo pojo : searchProviders) {
-                pojo.query = query;
+        if (webSearchEnabled) {
+            for (SearchPojo searchProvider : searchProviders) {
+                // copy, providers are shared with other searches
+                SearchPojo pojo = new SearchPojo(searchProvider.id, query, searchProvider.url, searchProvider.type);
+                pojo.relevance = searchProvider.relevance;
+                pojo.setName(searchProvider.getName(), false);
                 records.add(pojo);
             }
         }
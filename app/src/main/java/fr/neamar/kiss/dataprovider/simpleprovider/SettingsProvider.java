@@ -2,32 +2,27 @@ package fr.neamar.kiss.dataprovider.simpleprovider;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.os.Build;
-import androidx.preference.PreferenceManager;
 import android.provider.Settings;
 
 import androidx.annotation.DrawableRes;
 
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
 import fr.neamar.kiss.R;
-import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.BestMatch;
 import fr.neamar.kiss.pojo.SettingPojo;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
-import fr.neamar.kiss.utils.fuzzy.FuzzyFactory;
 import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
-import fr.neamar.kiss.utils.fuzzy.MatchInfo;
 
 public class SettingsProvider extends SimpleProvider<SettingPojo> {
     private final static String SCHEME = "setting://";
     private final String settingName;
     private final List<SettingPojo> pojos;
-    private final WeakReference<Context> contextReference;
 
     public SettingsProvider(Context context) {
         pojos = new ArrayList<>();
@@ -61,8 +56,6 @@ public class SettingsProvider extends SimpleProvider<SettingPojo> {
                 Settings.ACTION_APPLICATION_DEVELOPMENT_SETTINGS, R.drawable.setting_dev));
 
         settingName = context.getString(R.string.settings_prefix).toLowerCase(Locale.ROOT);
-
-        this.contextReference = new WeakReference<>(context);
     }
 
     private void assignName(SettingPojo pojo, String name) {
@@ -87,35 +80,29 @@ public class SettingsProvider extends SimpleProvider<SettingPojo> {
     }
 
     @Override
-    public void requestResults(String query, Searcher searcher) {
-        Context context = contextReference.get();
-        if (context == null) {
+    public void requestResults(SearchQuery query, Searcher searcher) {
+        if (!query.settingsEnabled) {
             return;
         }
 
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
-        if (!prefs.getBoolean("enable-settings", true)) {
+        if (query.normalized.codePoints.length == 0) {
             return;
         }
 
-        StringNormalizer.Result queryNormalized = StringNormalizer.normalizeWithResult(query, false);
-        if (queryNormalized.codePoints.length == 0) {
-            return;
-        }
+        FuzzyScore fuzzyScore = query.createFuzzyScore();
 
-        FuzzyScore fuzzyScore = FuzzyFactory.createFuzzyScore(context, queryNormalized.codePoints);
+        BestMatch bestMatch = new BestMatch();
 
         for (SettingPojo pojo : pojos) {
-            MatchInfo matchInfo = fuzzyScore.match(pojo.normalizedName.codePoints);
-            boolean match = pojo.updateMatchingRelevance(matchInfo, false);
+            bestMatch.reset();
+            bestMatch.update(fuzzyScore.match(pojo.normalizedName));
 
-            if (!match) {
+            if (!bestMatch.isMatch()) {
                 // Match localized setting name
-                matchInfo = fuzzyScore.match(settingName);
-                match = pojo.updateMatchingRelevance(matchInfo, match);
+                bestMatch.update(fuzzyScore.match(settingName));
             }
 
-            if (match && !searcher.addResult(pojo)) {
+            if (bestMatch.isMatch() && !searcher.addResult(bestMatch.toScoredPojo(pojo))) {
                 return;
             }
         }
@@ -3,6 +3,7 @@ package fr.neamar.kiss.dataprovider.simpleprovider;
 import java.util.Locale;
 
 import fr.neamar.kiss.pojo.TagDummyPojo;
+import fr.neamar.kiss.searcher.SearchQuery;
 import fr.neamar.kiss.searcher.Searcher;
 
 public class TagsProvider extends SimpleProvider<TagDummyPojo> {
@@ -13,7 +14,7 @@ public class TagsProvider extends SimpleProvider<TagDummyPojo> {
     }
 
     @Override
-    public void requestResults(String s, Searcher searcher) {
+    public void requestResults(SearchQuery query, Searcher searcher) {
 
     }
 
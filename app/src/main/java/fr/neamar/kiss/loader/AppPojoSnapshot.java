@@ -0,0 +1,151 @@
+package fr.neamar.kiss.loader;
+
+import android.content.Context;
+import android.os.UserManager;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.neamar.kiss.pojo.AppPojo;
+import fr.neamar.kiss.utils.UserHandle;
+
+/**
+ * Apps of the last successful load, kept in a compact binary file so that apps can be searched
+ * right after the process is started, while {@link LoadAppPojosCoroutine} lists them again.
+ * <p>
+ * Listing apps of every profile and reading custom names takes hundreds of ms on a cold start,
+ * reading the snapshot only a few ms. The snapshot is replaced by the actual apps once listed.
+ */
+final class AppPojoSnapshot {
+    private static final String TAG = AppPojoSnapshot.class.getSimpleName();
+    private static final String FILE_NAME = "apps.snapshot";
+    private static final int MAGIC = 0x4B495353;
+    /**
+     * Increment when the format changes, older snapshots are then ignored
+     */
+    private static final int VERSION = 1;
+
+    private static final int FLAG_EXCLUDED = 1;
+    private static final int FLAG_EXCLUDED_FROM_HISTORY = 1 << 1;
+    private static final int FLAG_EXCLUDED_SHORTCUTS = 1 << 2;
+    private static final int FLAG_DISABLED = 1 << 3;
+
+    private AppPojoSnapshot() {
+    }
+
+    private static AtomicFile getFile(Context context) {
+        return new AtomicFile(new File(context.getCacheDir(), FILE_NAME));
+    }
+
+    /**
+     * Replace the snapshot with given apps
+     */
+    @WorkerThread
+    static void write(@NonNull Context context, @NonNull List<AppPojo> apps) {
+        AtomicFile file = getFile(context);
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(apps.size());
+            for (AppPojo app : apps) {
+                out.writeUTF(app.id);
+                out.writeUTF(app.packageName);
+                out.writeUTF(app.activityName);
+                out.writeLong(app.userHandle.getSerial());
+                out.writeUTF(app.getName() != null ? app.getName() : "");
+                out.writeUTF(app.getTags() != null ? app.getTags() : "");
+                out.writeByte((app.isExcluded() ? FLAG_EXCLUDED : 0)
+                        | (app.isExcludedFromHistory() ? FLAG_EXCLUDED_FROM_HISTORY : 0)
+                        | (app.isExcludedShortcuts() ? FLAG_EXCLUDED_SHORTCUTS : 0)
+                        | (app.isDisabled() ? FLAG_DISABLED : 0));
+                out.writeLong(app.getCustomIconId());
+            }
+            out.flush();
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write app snapshot", e);
+            if (stream != null) {
+                file.failWrite(stream);
+            }
+        }
+    }
+
+    /**
+     * @return apps of the snapshot, null if there is no usable snapshot. Apps of profiles that
+     * no longer exist are skipped
+     */
+    @WorkerThread
+    @Nullable
+    static List<AppPojo> read(@NonNull Context context) {
+        UserManager manager = (UserManager) context.getSystemService(Context.USER_SERVICE);
+        Map<Long, UserHandle> users = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(getFile(context).openRead()))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int count = in.readInt();
+            List<AppPojo> apps = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                String packageName = in.readUTF();
+                String activityName = in.readUTF();
+                long serial = in.readLong();
+                String name = in.readUTF();
+                String tags = in.readUTF();
+                int flags = in.readByte();
+                long customIconId = in.readLong();
+
+                UserHandle userHandle = users.get(serial);
+                if (userHandle == null && !users.containsKey(serial)) {
+                    userHandle = getUserHandle(manager, serial);
+                    users.put(serial, userHandle);
+                }
+                if (userHandle == null) {
+                    continue;
+                }
+
+                AppPojo app = new AppPojo(id, packageName, activityName, userHandle,
+                        (flags & FLAG_EXCLUDED) != 0, (flags & FLAG_EXCLUDED_FROM_HISTORY) != 0,
+                        (flags & FLAG_EXCLUDED_SHORTCUTS) != 0, (flags & FLAG_DISABLED) != 0);
+                app.setName(name);
+                app.setTags(tags);
+                app.setCustomIconId(customIconId);
+                apps.add(app);
+            }
+            return apps;
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read app snapshot", e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static UserHandle getUserHandle(@Nullable UserManager manager, long serial) {
+        if (serial == 0) {
+            return new UserHandle();
+        }
+        android.os.UserHandle user = manager != null ? manager.getUserForSerialNumber(serial) : null;
+        return user != null ? new UserHandle(serial, user) : null;
+    }
+}
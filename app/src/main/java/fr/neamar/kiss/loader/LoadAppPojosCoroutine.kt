@@ -45,6 +45,11 @@ class LoadAppPojosCoroutine(context: Context) : LoadPojosCoroutine<AppPojo>(cont
         val apps = mutableListOf<AppPojo>()
         val ctx = contextRef.get() ?: return apps
         
+        // Apps of the last load can be searched while they are listed again
+        if (isFirstLoad()) {
+            AppPojoSnapshot.read(ctx)?.let { publishPreliminaryResult(it) }
+        }
+        
         val kissApp = KissApplication.getApplication(ctx)
         val excludedAppList = kissApp.dataHandler.excluded
         val excludedFromHistoryAppList = kissApp.dataHandler.excludedFromHistory
@@ -56,6 +61,8 @@ class LoadAppPojosCoroutine(context: Context) : LoadPojosCoroutine<AppPojo>(cont
         // Apply custom information from database
         applyCustomAppInfo(ctx, apps)
         
+        AppPojoSnapshot.write(ctx, apps)
+        
         val end = System.currentTimeMillis()
         if (BuildConfig.DEBUG) {
             Log.i(TAG, "${end - start} milliseconds to list apps")
@@ -64,6 +71,36 @@ class LoadAppPojosCoroutine(context: Context) : LoadPojosCoroutine<AppPojo>(cont
         return apps
     }
     
+    /**
+     * Load the apps of a single package for a single user, to update it without listing all apps.
+     * Errors are thrown rather than giving no apps, which would remove all apps of the package
+     *
+     * @return apps of the package, empty if it has no launchable activity anymore
+     */
+    @WorkerThread
+    fun loadPackage(packageName: String, userHandle: UserHandle): List<AppPojo> {
+        val ctx = contextRef.get() ?: throw IllegalStateException("Context is null when loading package $packageName")
+        
+        val dataHandler = KissApplication.getApplication(ctx).dataHandler
+        val launcherApps = ctx.getSystemService(Context.LAUNCHER_APPS_SERVICE) as LauncherApps
+        val apps = mutableListOf<AppPojo>()
+        for (activityInfo in launcherApps.getActivityList(packageName, userHandle.realHandle)) {
+            apps.add(createPojo(
+                userHandle,
+                activityInfo.applicationInfo.packageName,
+                activityInfo.name,
+                activityInfo.label,
+                !activityInfo.applicationInfo.enabled,
+                dataHandler.excluded,
+                dataHandler.excludedFromHistory,
+                dataHandler.excludedShortcutApps
+            ))
+        }
+        
+        applyCustomAppInfo(ctx, apps)
+        return apps
+    }
+    
     @WorkerThread
     private fun loadAppsForAllProfiles(
         ctx: Context,
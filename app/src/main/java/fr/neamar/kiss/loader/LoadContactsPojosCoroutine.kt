@@ -9,16 +9,74 @@ import androidx.annotation.WorkerThread
 import fr.neamar.kiss.pojo.ContactsPojo
 import fr.neamar.kiss.utils.Permission
 
+/**
+ * Time of the last successful load of contacts, kept by the provider between loads
+ */
+class ContactsSyncState {
+    /**
+     * Start of the last successful load, 0 if contacts must be fully loaded
+     */
+    @Volatile
+    var lastSync: Long = 0
+}
+
 /**
  * Kotlin Coroutines replacement for LoadContactsPojos AsyncTask
  * Simplified version focusing on basic contact loading functionality
+ *
+ * @param syncState time of the last load, updated once this load is over
+ * @param basePojos contacts of the last load, only contacts changed or deleted since are
+ * queried again. Null to load all contacts
  */
-class LoadContactsPojosCoroutine(context: Context) : LoadPojosCoroutine<ContactsPojo>(context, "contact://") {
+class LoadContactsPojosCoroutine @JvmOverloads constructor(
+    context: Context,
+    private val syncState: ContactsSyncState = ContactsSyncState(),
+    private val basePojos: List<ContactsPojo>? = null
+) : LoadPojosCoroutine<ContactsPojo>(context, "contact://") {
     
     companion object {
         private const val TAG = "LoadContactsPojosCoroutine"
+        
+        /**
+         * Changed contacts above which all contacts are loaded again
+         */
+        private const val MAX_CHANGED_CONTACTS = 500
+        
+        /**
+         * Ids per query, SQLite limits the number of arguments
+         */
+        private const val MAX_IDS_PER_QUERY = 500
+        
+        /**
+         * Order of `DISPLAY_NAME ASC` in queries: SQLite compares text as UTF-8 bytes by default,
+         * which is the order of code points
+         */
+        private val DISPLAY_NAME_ORDER = Comparator<ContactsPojo> { a, b ->
+            compareCodePoints(a.name ?: "", b.name ?: "")
+        }
+        
+        private fun compareCodePoints(a: String, b: String): Int {
+            var i = 0
+            var j = 0
+            while (i < a.length && j < b.length) {
+                val cpA = a.codePointAt(i)
+                val cpB = b.codePointAt(j)
+                if (cpA != cpB) {
+                    return cpA.compareTo(cpB)
+                }
+                i += Character.charCount(cpA)
+                j += Character.charCount(cpB)
+            }
+            return (a.length - i).compareTo(b.length - j)
+        }
     }
     
+    /**
+     * Start of this load, 0 if it failed
+     */
+    @Volatile
+    private var syncStart: Long = 0
+    
     @WorkerThread
     override fun doInBackground(): List<ContactsPojo> {
         val start = System.currentTimeMillis()
@@ -32,22 +90,144 @@ class LoadContactsPojosCoroutine(context: Context) : LoadPojosCoroutine<Contacts
             return contacts
         }
         
-        try {
-            // Load basic contacts with phone numbers
-            contacts.addAll(loadPhoneContacts(ctx))
-            
+        // contacts changed while querying are queried again next time
+        val syncStart = System.currentTimeMillis()
+        val delta = try {
+            loadChangedContacts(ctx, syncState.lastSync, syncStart)
         } catch (e: Exception) {
-            Log.e(TAG, "Error loading contacts", e)
+            Log.w(TAG, "Error loading changed contacts, loading all contacts", e)
+            null
+        }
+        
+        if (delta != null && delta === basePojos) {
+            this.syncStart = syncStart
+            return delta
+        } else if (delta != null) {
+            contacts.addAll(delta)
+            this.syncStart = syncStart
+        } else {
+            try {
+                // Load basic contacts with phone numbers
+                contacts.addAll(loadPhoneContacts(ctx, null, null))
+                this.syncStart = syncStart
+            } catch (e: Exception) {
+                Log.e(TAG, "Error loading contacts", e)
+            }
         }
         
         val end = System.currentTimeMillis()
-        Log.i(TAG, "${end - start} milliseconds to load ${contacts.size} contacts")
+        Log.i(TAG, "${end - start} milliseconds to load ${contacts.size} contacts" + if (delta != null) " (changes only)" else "")
+        
+        return contacts
+    }
+    
+    override fun onPostExecute(result: List<ContactsPojo>) {
+        // a failed load must be followed by a full load
+        syncState.lastSync = syncStart
+        if (result !== basePojos) {
+            super.onPostExecute(result)
+        }
+    }
+    
+    /**
+     * Patch contacts of the last load with the contacts changed or deleted since
+     *
+     * @return all contacts, null if all contacts must be loaded again
+     */
+    @WorkerThread
+    private fun loadChangedContacts(ctx: Context, lastSync: Long, now: Long): List<ContactsPojo>? {
+        val base = basePojos ?: return null
+        // deleted contacts are only kept for some days, clock may also have changed
+        if (lastSync <= 0 || lastSync > now || now - lastSync > ContactsContract.DeletedContacts.DAYS_KEPT_MILLISECONDS) {
+            return null
+        }
+        
+        val changedIds = queryContactIds(
+            ctx,
+            ContactsContract.Contacts.CONTENT_URI,
+            ContactsContract.Contacts._ID,
+            ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP,
+            lastSync
+        )
+        val deletedIds = queryContactIds(
+            ctx,
+            ContactsContract.DeletedContacts.CONTENT_URI,
+            ContactsContract.DeletedContacts.CONTACT_ID,
+            ContactsContract.DeletedContacts.CONTACT_DELETED_TIMESTAMP,
+            lastSync
+        )
+        if (changedIds.size > MAX_CHANGED_CONTACTS) {
+            return null
+        }
+        if (changedIds.isEmpty() && deletedIds.isEmpty()) {
+            // e.g. only usage statistics changed, keep pojos and search indexes
+            return base
+        }
         
+        val kept = ArrayList<ContactsPojo>(base.size)
+        for (contact in base) {
+            if (contact.contactId !in changedIds && contact.contactId !in deletedIds) {
+                kept.add(contact)
+            }
+        }
+        val changed = ArrayList<ContactsPojo>(changedIds.size)
+        for (ids in changedIds.chunked(MAX_IDS_PER_QUERY)) {
+            val selection = ContactsContract.CommonDataKinds.Phone.CONTACT_ID + " IN (" + ids.joinToString(",") { "?" } + ")"
+            changed.addAll(loadPhoneContacts(ctx, selection, ids.map { it.toString() }.toTypedArray()))
+        }
+        // each chunk is sorted on its own, the sort is stable so the order within a name is kept
+        changed.sortWith(DISPLAY_NAME_ORDER)
+        Log.v(TAG, "${changedIds.size} contacts changed, ${deletedIds.size} deleted")
+        return mergeByName(kept, changed)
+    }
+    
+    /**
+     * Merge contacts sorted by name into the contacts of the last load, so that patched contacts
+     * are listed in the same order as after a full load
+     *
+     * @param kept    contacts of the last load, sorted by name
+     * @param changed contacts queried again, sorted by name
+     * @return all contacts sorted by name, kept contacts first among contacts of the same name
+     */
+    private fun mergeByName(kept: List<ContactsPojo>, changed: List<ContactsPojo>): List<ContactsPojo> {
+        val contacts = ArrayList<ContactsPojo>(kept.size + changed.size)
+        var k = 0
+        var c = 0
+        while (k < kept.size && c < changed.size) {
+            if (DISPLAY_NAME_ORDER.compare(changed[c], kept[k]) < 0) {
+                contacts.add(changed[c++])
+            } else {
+                contacts.add(kept[k++])
+            }
+        }
+        contacts.addAll(kept.subList(k, kept.size))
+        contacts.addAll(changed.subList(c, changed.size))
         return contacts
     }
     
+    /**
+     * @return ids of the contacts whose timestamp is at least `since`
+     */
+    @WorkerThread
+    private fun queryContactIds(ctx: Context, uri: Uri, idColumn: String, timestampColumn: String, since: Long): Set<Long> {
+        val ids = mutableSetOf<Long>()
+        ctx.contentResolver.query(
+            uri,
+            arrayOf(idColumn),
+            "$timestampColumn >= ?",
+            arrayOf(since.toString()),
+            null
+        )?.use { cursor ->
+            val idIndex = cursor.getColumnIndex(idColumn)
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(idIndex))
+            }
+        }
+        return ids
+    }
+    
     @WorkerThread
-    private fun loadPhoneContacts(ctx: Context): List<ContactsPojo> {
+    private fun loadPhoneContacts(ctx: Context, selection: String?, selectionArgs: Array<String>?): List<ContactsPojo> {
         val contacts = mutableListOf<ContactsPojo>()
         
         val projection = arrayOf(
@@ -62,8 +242,8 @@ class LoadContactsPojosCoroutine(context: Context) : LoadPojosCoroutine<Contacts
         ctx.contentResolver.query(
             ContactsContract.CommonDataKinds.Phone.CONTENT_URI,
             projection,
-            null,
-            null,
+            selection,
+            selectionArgs,
             ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME + " ASC"
         )?.use { cursor ->
             val lookupIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.LOOKUP_KEY)
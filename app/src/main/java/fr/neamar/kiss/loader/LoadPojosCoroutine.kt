@@ -1,6 +1,8 @@
 package fr.neamar.kiss.loader
 
 import android.content.Context
+import android.os.Handler
+import android.os.Looper
 import androidx.annotation.WorkerThread
 import fr.neamar.kiss.dataprovider.Provider
 import fr.neamar.kiss.pojo.Pojo
@@ -60,6 +62,24 @@ abstract class LoadPojosCoroutine<T : Pojo>(
         )
     }
     
+    /**
+     * Whether the provider has no data yet, e.g. on a cold start
+     */
+    protected fun isFirstLoad(): Boolean = providerRef?.get()?.isLoaded == false
+
+    /**
+     * Give the provider results to use until the background work completes, only if it has
+     * no data yet. The provider is not considered loaded until [onPostExecute].
+     * Can be called from the background thread
+     *
+     * @param result Preliminary POJOs
+     */
+    protected fun publishPreliminaryResult(result: List<T>) {
+        Handler(Looper.getMainLooper()).post {
+            providerRef?.get()?.loadPreliminary(result)
+        }
+    }
+
     /**
      * Background work - override this method to implement data loading
      * This runs on a background thread
@@ -75,7 +95,7 @@ abstract class LoadPojosCoroutine<T : Pojo>(
      * 
      * @param result The loaded POJOs
      */
-    private fun onPostExecute(result: List<T>) {
+    protected open fun onPostExecute(result: List<T>) {
         val provider = providerRef?.get()
         if (provider != null) {
             provider.loadOver(result)
@@ -38,11 +38,24 @@ class LoadShortcutsPojosCoroutine(context: Context) : LoadPojosCoroutine<Shortcu
         }
     }
     
+    /**
+     * Load the Oreo shortcuts of a single package, to update it without listing all shortcuts
+     *
+     * @return shortcuts of the package from system, for all profiles
+     */
+    @WorkerThread
+    fun loadPackage(packageName: String): List<ShortcutPojo> {
+        val context = contextRef.get() ?: throw IllegalStateException("Context is null when loading package $packageName")
+        return fetchOreoPojos(context, packageName)
+    }
+    
     /**
      * Get all Oreo shortcuts from system directly (Android O+)
+     *
+     * @param packageName only get shortcuts of this package, all shortcuts if null
      */
     @WorkerThread
-    private fun fetchOreoPojos(context: Context): List<ShortcutPojo> {
+    private fun fetchOreoPojos(context: Context, packageName: String? = null): List<ShortcutPojo> {
         val oreoPojos = mutableListOf<ShortcutPojo>()
         
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
@@ -50,7 +63,7 @@ class LoadShortcutsPojosCoroutine(context: Context) : LoadPojosCoroutine<Shortcu
             val excludedApps = dataHandler.excluded
             val excludedShortcutApps = dataHandler.excludedShortcutApps
             val userManager = context.getSystemService(Context.USER_SERVICE) as UserManager
-            val shortcutInfos = ShortcutUtil.getAllShortcuts(context)
+            val shortcutInfos = ShortcutUtil.getShortcuts(context, packageName)
             
             for (shortcutInfo in shortcutInfos) {
                 try {
@@ -0,0 +1,169 @@
+package fr.neamar.kiss.normalizer;
+
+import java.nio.CharBuffer;
+import java.text.Normalizer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Decomposition of single code points as done by {@link StringNormalizer#normalizeWithResult(CharSequence, boolean)}:
+ * NFKD, without combining marks and dashes.
+ * <p/>
+ * {@link Normalizer} allocates strings for every code point, so decompositions of the BMP are
+ * computed once and kept in a table, one block of 256 code points at a time when a code point of
+ * the block is first seen. Blocks where no code point changes are shared, and Hangul syllables are
+ * decomposed arithmetically, so only blocks of scripts actually used in names take memory, about
+ * 1KB each. Code points outside of the BMP are rare in names and still use {@link Normalizer}.
+ */
+final class DecompositionTable {
+    /**
+     * Longest decomposition of a single code point (U+FDFA)
+     */
+    static final int MAX_LENGTH = 18;
+
+    private static final int BLOCK_SIZE = 256;
+    private static final int MAX_TABLE_CODE_POINT = 0xFFFF;
+
+    // Hangul syllables, see "Conjoining Jamo Behavior" in chapter 3 of the Unicode standard
+    private static final int FIRST_SYLLABLE = 0xAC00;
+    private static final int LAST_SYLLABLE = 0xD7A3;
+    private static final int FIRST_LEADING = 0x1100;
+    private static final int FIRST_VOWEL = 0x1161;
+    private static final int FIRST_TRAILING = 0x11A7;
+    private static final int VOWEL_COUNT = 21;
+    private static final int TRAILING_COUNT = 28;
+
+    /**
+     * Entry of code points with an empty decomposition, entries of other code points are:
+     * the single code point of the decomposition if positive, otherwise
+     * {@code MULTIPLE | length << 16 | index} of the decomposition stored after the entries of the block
+     */
+    private static final int REMOVED = -1;
+    private static final int MULTIPLE = 0x80000000;
+
+    /**
+     * Shared block of the blocks where every code point decomposes to itself
+     */
+    private static final int[] IDENTITY = new int[0];
+
+    private static final AtomicReferenceArray<int[]> blocks = new AtomicReferenceArray<>((MAX_TABLE_CODE_POINT + 1) / BLOCK_SIZE);
+
+    private DecompositionTable() {
+    }
+
+    /**
+     * @param codePoint code point to decompose
+     * @param out       receives the code points of the decomposition, at least {@link #MAX_LENGTH} long
+     * @return number of code points of the decomposition, may be 0
+     */
+    static int decompose(int codePoint, int[] out) {
+        if (codePoint > MAX_TABLE_CODE_POINT) {
+            return decomposeWithNormalizer(codePoint, out, CharBuffer.allocate(2));
+        }
+        if (codePoint >= FIRST_SYLLABLE && codePoint <= LAST_SYLLABLE) {
+            int index = codePoint - FIRST_SYLLABLE;
+            out[0] = FIRST_LEADING + index / (VOWEL_COUNT * TRAILING_COUNT);
+            out[1] = FIRST_VOWEL + (index % (VOWEL_COUNT * TRAILING_COUNT)) / TRAILING_COUNT;
+            int trailing = index % TRAILING_COUNT;
+            if (trailing == 0) {
+                return 2;
+            }
+            out[2] = FIRST_TRAILING + trailing;
+            return 3;
+        }
+
+        int[] block = blocks.get(codePoint / BLOCK_SIZE);
+        if (block == null) {
+            block = buildBlock(codePoint / BLOCK_SIZE);
+        }
+        if (block == IDENTITY) {
+            out[0] = codePoint;
+            return 1;
+        }
+        int entry = block[codePoint % BLOCK_SIZE];
+        if (entry >= 0) {
+            out[0] = entry;
+            return 1;
+        }
+        if (entry == REMOVED) {
+            return 0;
+        }
+        int length = (entry & ~MULTIPLE) >>> 16;
+        System.arraycopy(block, entry & 0xFFFF, out, 0, length);
+        return length;
+    }
+
+    private static int[] buildBlock(int blockIndex) {
+        int[] entries = new int[BLOCK_SIZE];
+        int[] multiple = new int[0];
+        boolean identity = true;
+        int[] decomposed = new int[MAX_LENGTH];
+        CharBuffer buffer = CharBuffer.allocate(2);
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            int codePoint = blockIndex * BLOCK_SIZE + i;
+            int length = decomposeWithNormalizer(codePoint, decomposed, buffer);
+            if (length == 1) {
+                entries[i] = decomposed[0];
+            } else if (length == 0) {
+                entries[i] = REMOVED;
+            } else {
+                entries[i] = MULTIPLE | length << 16 | (BLOCK_SIZE + multiple.length);
+                int[] grown = new int[multiple.length + length];
+                System.arraycopy(multiple, 0, grown, 0, multiple.length);
+                System.arraycopy(decomposed, 0, grown, multiple.length, length);
+                multiple = grown;
+            }
+            identity &= length == 1 && entries[i] == codePoint;
+        }
+
+        int[] block = IDENTITY;
+        if (!identity) {
+            block = new int[BLOCK_SIZE + multiple.length];
+            System.arraycopy(entries, 0, block, 0, BLOCK_SIZE);
+            System.arraycopy(multiple, 0, block, BLOCK_SIZE, multiple.length);
+        }
+        // another thread may have built the same block meanwhile, both are identical
+        blocks.compareAndSet(blockIndex, null, block);
+        return block;
+    }
+
+    /**
+     * Decompose with {@link Normalizer}, then skip combining marks and dashes
+     */
+    private static int decomposeWithNormalizer(int codePoint, int[] out, CharBuffer buffer) {
+        buffer.clear();
+        buffer.put(Character.toChars(codePoint));
+        buffer.flip();
+        String decomposedCharString = Normalizer.normalize(buffer, Normalizer.Form.NFKD);
+
+        // `codePoint` may be decomposed to four (or maybe even more) new code points
+        int length = 0;
+        int decomposedCharOffset = 0;
+        while (decomposedCharOffset < decomposedCharString.length()) {
+            int resultChar = decomposedCharString.codePointAt(decomposedCharOffset);
+
+            // Skip characters for some unicode character classes, including:
+            //  * combining characters produced by the NFKD normalizer above
+            //  * dashes
+            // See StringNormalizer.normalizeWithResult for more information
+            switch (Character.getType(resultChar)) {
+                case Character.NON_SPACING_MARK:
+                case Character.COMBINING_SPACING_MARK:
+                    // Some combining character found
+                    // See http://www.fileformat.info/info/unicode/category/Mn/list.htm
+                    // And http://www.fileformat.info/info/unicode/category/Mc/list.htm
+                    break;
+
+                case Character.DASH_PUNCTUATION:
+                    // We skip dashes too
+                    // see http://www.fileformat.info/info/unicode/category/Pd/list.htm
+                    break;
+
+                default:
+                    out[length++] = resultChar;
+            }
+
+            decomposedCharOffset += Character.charCount(resultChar);
+        }
+        return length;
+    }
+}
@@ -2,8 +2,6 @@ package fr.neamar.kiss.normalizer;
 
 import androidx.annotation.NonNull;
 
-import java.nio.CharBuffer;
-import java.text.Normalizer;
 import java.util.Arrays;
 
 /**
@@ -38,13 +36,15 @@ public class StringNormalizer {
         int numCodePoints = Character.codePointCount(input, 0, input.length());
         IntSequenceBuilder codePoints = new IntSequenceBuilder(numCodePoints);
         IntSequenceBuilder resultMap = new IntSequenceBuilder(numCodePoints);
-        CharBuffer buffer = CharBuffer.allocate(2);
+        int[] decomposed = new int[DecompositionTable.MAX_LENGTH];
+        // whether each normalized character maps to the same position in the input so far
+        boolean identity = true;
+        int count = 0;
         int i = 0;
         for (int iterCodePoint = 0; iterCodePoint < numCodePoints; iterCodePoint += 1) {
             int codepoint = Character.codePointAt(input, i);
-            String decomposedCharString;
             // Is it within the basic latin range?
-            // If so, we can skip the expensive call to Normalizer.normalize
+            // If so, we can skip the decomposition
             if(codepoint <= 'z') {
                 // Ascii range, no need to normalize!
                 // Add directly if it's not a dash
@@ -54,71 +54,194 @@ public class StringNormalizer {
                 if(codepoint != '-') {
                     codePoints.add(makeLowercase ? Character.toLowerCase(codepoint) : codepoint);
                     resultMap.add(i);
+                    identity &= count++ == i;
                 }
             }
             else {
-                // Otherwise, we'll need to normalize the code point to a letter and potential accentuation
-                buffer.put(Character.toChars(codepoint));
-                buffer.flip();
-                decomposedCharString = Normalizer.normalize(buffer, Normalizer.Form.NFKD);
-                buffer.clear();
-
-                // `inputChar` codepoint may be decomposed to four (or maybe even more) new code points
-                int decomposedCharOffset = 0;
-                while (decomposedCharOffset < decomposedCharString.length()) {
-                    int resultChar = decomposedCharString.codePointAt(decomposedCharOffset);
-
-                    // Skip characters for some unicode character classes, including:
-                    //  * combining characters produced by the NFKD normalizer above
-                    //  * dashes
-                    // See the method's description for more information
-                    switch (Character.getType(resultChar)) {
-                        case Character.NON_SPACING_MARK:
-                        case Character.COMBINING_SPACING_MARK:
-                            // Some combining character found
-                            // See http://www.fileformat.info/info/unicode/category/Mn/list.htm
-                            // And http://www.fileformat.info/info/unicode/category/Mc/list.htm
-                            break;
-
-                        case Character.DASH_PUNCTUATION:
-                            // We skip dashes too
-                            // (standard HYPHEN-MINUS was skipped above, but dashes are a large family!)
-                            // see http://www.fileformat.info/info/unicode/category/Pd/list.htm
-                            break;
-
-                        default:
-                            codePoints.add(makeLowercase ? Character.toLowerCase(resultChar) : resultChar);
-                            resultMap.add(i);
-                    }
-
-                    decomposedCharOffset += Character.charCount(resultChar);
+                // Otherwise, we'll need to normalize the code point to a letter and potential accentuation,
+                // without combining characters and dashes. See DecompositionTable
+                int decomposedLength = DecompositionTable.decompose(codepoint, decomposed);
+                for (int j = 0; j < decomposedLength; j++) {
+                    codePoints.add(makeLowercase ? Character.toLowerCase(decomposed[j]) : decomposed[j]);
+                    resultMap.add(i);
+                    identity &= count++ == i;
                 }
             }
 
             i += Character.charCount(codepoint);
         }
 
-        return new Result(input.length(), codePoints.toArray(), resultMap.toArray());
+        return new Result(input.length(), codePoints.toArray(), identity ? null : resultMap.toArray());
+    }
+
+    /**
+     * Signature of the characters of a text: one bit per latin letter and digit, all other
+     * characters share the remaining bits. Characters are compared case insensitive.
+     * <p/>
+     * A text can only contain all characters of a pattern if its signature covers the signature
+     * of the pattern, see {@link Result#mayContainAll(long)}. This is much cheaper than scoring
+     * the text, and lets most texts be rejected before scoring once a few letters are typed.
+     *
+     * @param codePoints text converted to codepoints
+     * @return signature of given text
+     */
+    public static long signature(int[] codePoints) {
+        long signature = 0;
+        for (int codePoint : codePoints) {
+            signature |= signatureBit(Character.toLowerCase(codePoint));
+        }
+        return signature;
+    }
+
+    /**
+     * Initials of the words of a text, lowercase: first character of the text and every
+     * character following a whitespace. With {@code camelCase}, uppercase letters following a
+     * lowercase letter start a word too, e.g. "YouTube Studio" gives "yts" instead of "ys".
+     * <p/>
+     * These are the characters getting the separator and camel case bonus of the fuzzy scorers.
+     *
+     * @param codePoints text converted to codepoints
+     * @param camelCase  true to also split words on camel case boundaries
+     * @return lowercase initials of the words of given text
+     */
+    public static int[] initials(int[] codePoints, boolean camelCase) {
+        int[] initials = new int[codePoints.length];
+        int count = 0;
+        boolean prevSeparator = true;
+        boolean prevLower = false;
+        for (int codePoint : codePoints) {
+            int lower = Character.toLowerCase(codePoint);
+            int upper = Character.toUpperCase(codePoint);
+            boolean isSeparator = Character.isWhitespace(codePoint);
+            if (!isSeparator && (prevSeparator || (camelCase && prevLower && codePoint == upper && lower != upper))) {
+                initials[count++] = lower;
+            }
+            prevLower = codePoint == lower && lower != upper;
+            prevSeparator = isSeparator;
+        }
+        return Arrays.copyOf(initials, count);
+    }
+
+    private static long signatureBit(int lowerCodePoint) {
+        if (lowerCodePoint >= 'a' && lowerCodePoint <= 'z') {
+            return 1L << (lowerCodePoint - 'a');
+        }
+        if (lowerCodePoint >= '0' && lowerCodePoint <= '9') {
+            return 1L << (26 + lowerCodePoint - '0');
+        }
+        return 1L << (36 + lowerCodePoint % 28);
     }
 
     public static class Result implements Comparable<Result> {
         private final int originalInputLastCharPosition;
         public final int[] codePoints;
+        /**
+         * Position in the input of each code point, null when it is the identity, as it is for
+         * most names (ASCII without dashes, or a script without decompositions)
+         */
         private final int[] mapPositions;
+        /**
+         * Character signature of {@link #codePoints}, see {@link StringNormalizer#signature(int[])}
+         */
+        public final long signature;
 
+        /**
+         * @param mapPositions position in the input of each code point, null if code point
+         *                     {@code i} comes from position {@code i} of the input
+         */
         Result(final int originalInputLastCharPosition,
                final int[] codePoints, final int[] mapPositions) {
-            if (codePoints.length != mapPositions.length)
+            if (mapPositions != null && codePoints.length != mapPositions.length)
                 throw new IllegalStateException("Each codepoint needs a mapped position");
             this.originalInputLastCharPosition = originalInputLastCharPosition;
             this.codePoints = codePoints;
-            this.mapPositions = mapPositions;
+            this.mapPositions = mapPositions == null || isIdentity(mapPositions) ? null : mapPositions;
+            this.signature = signature(codePoints);
         }
 
         public int length() {
             return this.codePoints.length;
         }
 
+        /**
+         * @param patternSignature signature of a pattern
+         * @return false if this text doesn't contain every character of the pattern,
+         * true if it may contain all of them
+         */
+        public boolean mayContainAll(long patternSignature) {
+            return (signature & patternSignature) == patternSignature;
+        }
+
+        /**
+         * Chosung (initial consonants) of the Hangul syllables of this text, other characters kept
+         * as they are, e.g. "ㅋㅋㅇ T" for "카카오 T". Initial consonants are the conjoining choseong
+         * jamo, which are also what typed compatibility jamo like "ㅋ" are normalized to, so that
+         * "ㅋㅋㅇ" is an exact match instead of the scattered match it is in the full jamo sequence.
+         * <p/>
+         * NFKD already decomposes syllables into their jamo, this drops the vowel and final
+         * consonant jamo of each syllable and keeps the position mapping.
+         *
+         * @return chosung of this text, null if it has no Hangul syllable
+         */
+        public Result chosung() {
+            int count = 0;
+            for (int codePoint : codePoints) {
+                if (!isHangulMedialOrFinal(codePoint)) {
+                    count++;
+                }
+            }
+            if (count == codePoints.length) {
+                return null;
+            }
+            int[] chosung = new int[count];
+            int[] chosungPositions = new int[count];
+            count = 0;
+            for (int i = 0; i < codePoints.length; i++) {
+                if (!isHangulMedialOrFinal(codePoints[i])) {
+                    chosung[count] = codePoints[i];
+                    chosungPositions[count] = mapPosition(i);
+                    count++;
+                }
+            }
+            return new Result(originalInputLastCharPosition, chosung, chosungPositions);
+        }
+
+        /**
+         * @return true if this text has an initial consonant jamo, typed alone like "ㅋ" or from a
+         * decomposed syllable, so it may match the {@link #chosung()} of a text
+         */
+        public boolean hasHangulInitial() {
+            for (int codePoint : codePoints) {
+                if (isHangulInitial(codePoint)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isIdentity(int[] mapPositions) {
+            for (int i = 0; i < mapPositions.length; i++) {
+                if (mapPositions[i] != i)
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return true for jungseong and jongseong, the conjoining jamo following the initial
+         * consonant of a decomposed syllable
+         */
+        private static boolean isHangulMedialOrFinal(int codePoint) {
+            return codePoint >= 0x1160 && codePoint <= 0x11FF;
+        }
+
+        /**
+         * @return true for choseong, the conjoining jamo of initial consonants
+         */
+        private static boolean isHangulInitial(int codePoint) {
+            return codePoint >= 0x1100 && codePoint <= 0x115F;
+        }
+
         /**
          * Map a position in the normalized string to a position in the original string
          *
@@ -126,8 +249,8 @@ public class StringNormalizer {
          * @return Position in non-normalized string
          */
         public int mapPosition(int position) {
-            if (position < mapPositions.length)
-                return mapPositions[position];
+            if (position < codePoints.length)
+                return mapPositions == null ? position : mapPositions[position];
             // We are behind the last character, return the position of the end of the original input
             return originalInputLastCharPosition;
         }
@@ -0,0 +1,58 @@
+package fr.neamar.kiss.pojo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import fr.neamar.kiss.utils.fuzzy.MatchInfo;
+
+/**
+ * Keeps the best fuzzy match of one pojo over its searchable fields (name, tags, ...).
+ * <p>
+ * A provider uses one instance per scan and {@link #reset()}s it for each pojo, so scores are
+ * never stored in the shared pojos. Instances are not thread safe.
+ */
+public final class BestMatch {
+    private boolean match = false;
+    private int score = 0;
+
+    public void reset() {
+        match = false;
+        score = 0;
+    }
+
+    /**
+     * Updates best score with score of given {@code matchInfo} if there is a match.
+     * Score is set on first match, afterwards it will be only set if {@link MatchInfo#score} is higher than current best score.
+     *
+     * @param matchInfo used for update, null (e.g. for a field without value) is ignored
+     * @return true, if there was any match since last reset
+     */
+    public boolean update(@Nullable MatchInfo matchInfo) {
+        if (matchInfo != null && matchInfo.match && (!match || matchInfo.score > score)) {
+            score = matchInfo.score;
+            match = true;
+        }
+        return match;
+    }
+
+    public boolean isMatch() {
+        return match;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @param pojo  matched pojo
+     * @param bonus added to best score
+     * @return hit for given pojo with best score
+     */
+    public ScoredPojo toScoredPojo(@NonNull Pojo pojo, int bonus) {
+        return new ScoredPojo(pojo, score + bonus);
+    }
+
+    public ScoredPojo toScoredPojo(@NonNull Pojo pojo) {
+        return toScoredPojo(pojo, 0);
+    }
+}
@@ -1,7 +1,6 @@
 package fr.neamar.kiss.pojo;
 
 import android.net.Uri;
-import android.text.TextUtils;
 
 import fr.neamar.kiss.normalizer.PhoneNormalizer;
 import fr.neamar.kiss.normalizer.StringNormalizer;
@@ -47,7 +46,7 @@ public final class ContactsPojo extends Pojo {
     }
 
     public void setNickname(String nickname) {
-        if (!TextUtils.isEmpty(nickname)) {
+        if (nickname != null && !nickname.isEmpty()) {
             // Set the actual user-friendly name
             this.nickname = nickname;
             this.normalizedNickname = StringNormalizer.normalizeWithResult(this.nickname, false);
@@ -58,7 +57,7 @@ public final class ContactsPojo extends Pojo {
     }
 
     public void setPhone(String phone, boolean homeNumber) {
-        if (!TextUtils.isEmpty(phone)) {
+        if (phone != null && !phone.isEmpty()) {
             this.phone = phone;
             this.normalizedPhone = PhoneNormalizer.simplifyPhoneNumber(phone);
             this.homeNumber = homeNumber;
@@ -86,7 +85,7 @@ public final class ContactsPojo extends Pojo {
     }
 
     public void setNameAlternative(String nameAlternative) {
-        if (!TextUtils.isEmpty(nameAlternative)) {
+        if (nameAlternative != null && !nameAlternative.isEmpty()) {
             this.normalizedNameAlternative = StringNormalizer.normalizeWithResult(nameAlternative, false);
         } else {
             this.normalizedNameAlternative = null;
@@ -94,7 +93,7 @@ public final class ContactsPojo extends Pojo {
     }
 
     public void setPhoneticName(String phoneticName) {
-        if (!TextUtils.isEmpty(phoneticName)) {
+        if (phoneticName != null && !phoneticName.isEmpty()) {
             this.normalizedPhoneticName = StringNormalizer.normalizeWithResult(phoneticName, false);
         } else {
             this.normalizedPhoneticName = null;
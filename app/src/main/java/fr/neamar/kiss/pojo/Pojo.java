@@ -1,7 +1,8 @@
 package fr.neamar.kiss.pojo;
 
+import java.util.Arrays;
+
 import fr.neamar.kiss.normalizer.StringNormalizer;
-import fr.neamar.kiss.utils.fuzzy.MatchInfo;
 
 public abstract class Pojo {
     public static final String DEFAULT_ID = "(none)";
@@ -12,10 +13,18 @@ public abstract class Pojo {
     public String id;
     // normalized name, for faster search
     public StringNormalizer.Result normalizedName = null;
+    // Initials of the words of the normalized name, without and with camel case words,
+    // e.g. "gm" for "Google Maps", "ys" and "yts" for "YouTube Studio".
+    // See StringNormalizer.initials
+    public int[] nameInitials = null;
+    public int[] nameCamelInitials = null;
+    // Chosung of the normalized name, null if the name has no Hangul syllable.
+    // The full jamo sequence is normalizedName itself. See StringNormalizer.Result.chosung
+    public StringNormalizer.Result normalizedChosung = null;
     // Lower-cased name, for faster search
     //public String nameNormalized = "";
-    // How relevant is this record ? The higher, the most probable it will be
-    // displayed
+    // Base relevance of this record, for records created for a single search.
+    // Scores computed during a search are never stored here, see ScoredPojo
     public int relevance = 0;
     // Name for this pojo, e.g. app name
     private String name = "";
@@ -42,9 +51,17 @@ public abstract class Pojo {
             // Set the actual user-friendly name
             this.name = name;
             this.normalizedName = StringNormalizer.normalizeWithResult(this.name, false);
+            this.nameInitials = StringNormalizer.initials(this.normalizedName.codePoints, false);
+            int[] camelInitials = StringNormalizer.initials(this.normalizedName.codePoints, true);
+            // share the array for the common case of names without camel case
+            this.nameCamelInitials = Arrays.equals(camelInitials, nameInitials) ? nameInitials : camelInitials;
+            this.normalizedChosung = this.normalizedName.chosung();
         } else {
             this.name = null;
             this.normalizedName = null;
+            this.nameInitials = null;
+            this.nameCamelInitials = null;
+            this.normalizedChosung = null;
         }
     }
 
@@ -54,6 +71,9 @@ public abstract class Pojo {
         } else {
             this.name = name;
             this.normalizedName = null;
+            this.nameInitials = null;
+            this.nameCamelInitials = null;
+            this.normalizedChosung = null;
         }
     }
 
@@ -73,21 +93,6 @@ public abstract class Pojo {
         return getHistoryId();
     }
 
-    /**
-     * Updates relevance of this pojo with score of given {@code matchInfo} if there is a match.
-     *
-     * @param matchInfo used for update
-     * @param matched   flag to indicate if there was already a match before. If {@code matched} is false relevance is always set to {@link MatchInfo#score}, else it will be only set if {@link MatchInfo#score} is also higher than current value of relevance.
-     * @return true, if {@link MatchInfo#match} is true and relevance was updated, else value of {@code matched} is returned as is
-     */
-    public boolean updateMatchingRelevance(MatchInfo matchInfo, boolean matched) {
-        if (matchInfo.match && (!matched || matchInfo.score > relevance)) {
-            this.relevance = matchInfo.score;
-            return true;
-        }
-        return matched;
-    }
-
     public boolean isDisabled() {
         return false;
     }
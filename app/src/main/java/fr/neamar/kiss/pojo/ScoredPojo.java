@@ -0,0 +1,42 @@
+package fr.neamar.kiss.pojo;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Immutable search hit: a pojo together with the relevance it got for one search.
+ * <p>
+ * Pojos are shared between all searches, so scores computed for a query are kept here instead of
+ * being written to the pojo itself. This way overlapping searches (e.g. history and a query
+ * search) can't change each other's ordering.
+ */
+public final class ScoredPojo {
+    @NonNull
+    public final Pojo pojo;
+    /**
+     * How relevant is this hit ? The higher, the most probable it will be displayed
+     */
+    public final int relevance;
+
+    public ScoredPojo(@NonNull Pojo pojo, int relevance) {
+        this.pojo = pojo;
+        this.relevance = relevance;
+    }
+
+    /**
+     * @param pojo pojo with its own (base) relevance, like pojos created for a single search
+     * @return hit with relevance of given pojo
+     */
+    public static ScoredPojo of(@NonNull Pojo pojo) {
+        return new ScoredPojo(pojo, pojo.relevance);
+    }
+
+    /**
+     * @return copy of this hit with another relevance
+     */
+    public ScoredPojo withRelevance(int relevance) {
+        if (relevance == this.relevance) {
+            return this;
+        }
+        return new ScoredPojo(pojo, relevance);
+    }
+}
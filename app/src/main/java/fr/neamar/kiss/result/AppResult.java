@@ -64,23 +64,30 @@ public class AppResult extends Result<AppPojo> {
         className = new ComponentName(pojo.packageName, pojo.activityName);
     }
 
+    @Override
+    public void prepareHighlights(Context context, FuzzyScore fuzzyScore) {
+        prepareHighlight(pojo.normalizedName, pojo.getName(), fuzzyScore, context);
+        if (!pojo.getTags().isEmpty()) {
+            prepareHighlight(pojo.getNormalizedTags(), pojo.getTags(), fuzzyScore, context);
+        }
+    }
+
     @NonNull
     @Override
-    public View display(final Context context, View view, @NonNull ViewGroup parent, FuzzyScore fuzzyScore) {
+    public View display(final Context context, View view, @NonNull ViewGroup parent) {
         if (view == null) {
             view = inflateFromId(context, R.layout.item_app, parent);
         }
 
         TextView appName = view.findViewById(R.id.item_app_name);
 
-        displayHighlighted(pojo.normalizedName, pojo.getName(), fuzzyScore, appName, context);
+        displayHighlighted(pojo.normalizedName, pojo.getName(), appName);
 
         TextView tagsView = view.findViewById(R.id.item_app_tag);
         // Hide tags view if tags are empty
         if (pojo.getTags().isEmpty()) {
             tagsView.setVisibility(View.GONE);
-        } else if (displayHighlighted(pojo.getNormalizedTags(), pojo.getTags(),
-                fuzzyScore, tagsView, context) || isTagsVisible(context)) {
+        } else if (displayHighlighted(pojo.getNormalizedTags(), pojo.getTags(), tagsView) || isTagsVisible(context)) {
             tagsView.setVisibility(View.VISIBLE);
         } else {
             tagsView.setVisibility(View.GONE);
@@ -312,6 +319,7 @@ public class AppResult extends Result<AppPojo> {
             String name = PackageManagerUtils.getLabel(context, new ComponentName(app.packageName, app.activityName), app.userHandle);
             if (name != null) {
                 app.setName(name);
+                KissApplication.getApplication(context).getDataHandler().invalidateSearchCandidates();
 
                 // Show toast message
                 String msg = context.getResources().getString(R.string.app_rename_confirmation, app.getName());
@@ -54,26 +54,41 @@ public class ContactsResult extends CallResult<ContactsPojo> {
         this.queryInterface = queryInterface;
     }
 
+    @Override
+    public void prepareHighlights(Context context, FuzzyScore fuzzyScore) {
+        if (!TextUtils.isEmpty(pojo.getName())) {
+            prepareHighlight(pojo.normalizedName, pojo.getName(), fuzzyScore, context);
+        }
+        if (pojo.getContactData() != null && !TextUtils.isEmpty(pojo.getContactData().getIdentifier())) {
+            prepareHighlight(pojo.getContactData().getNormalizedIdentifier(), pojo.getContactData().getIdentifier(), fuzzyScore, context);
+        } else if (!TextUtils.isEmpty(pojo.phone)) {
+            prepareHighlight(pojo.normalizedPhone, pojo.phone, fuzzyScore, context);
+        }
+        if (!TextUtils.isEmpty(pojo.getNickname())) {
+            prepareHighlight(pojo.normalizedNickname, pojo.getNickname(), fuzzyScore, context);
+        }
+    }
+
     @NonNull
     @Override
-    public View display(Context context, View view, @NonNull ViewGroup parent, FuzzyScore fuzzyScore) {
+    public View display(Context context, View view, @NonNull ViewGroup parent) {
         if (view == null)
             view = inflateFromId(context, R.layout.item_contact, parent);
 
         // Contact name
         TextView contactName = view.findViewById(R.id.item_contact_name);
         if (!TextUtils.isEmpty(pojo.getName())) {
-            displayHighlighted(pojo.normalizedName, pojo.getName(), fuzzyScore, contactName, context);
+            displayHighlighted(pojo.normalizedName, pojo.getName(), contactName);
         }
 
         // Contact phone or IM identifier
         TextView contactPhone = view.findViewById(R.id.item_contact_phone);
         if (pojo.getContactData() != null && !TextUtils.isEmpty(pojo.getContactData().getIdentifier())) {
             contactPhone.setVisibility(View.VISIBLE);
-            displayHighlighted(pojo.getContactData().getNormalizedIdentifier(), pojo.getContactData().getIdentifier(), fuzzyScore, contactPhone, context);
+            displayHighlighted(pojo.getContactData().getNormalizedIdentifier(), pojo.getContactData().getIdentifier(), contactPhone);
         } else if (!TextUtils.isEmpty(pojo.phone)) {
             contactPhone.setVisibility(View.VISIBLE);
-            displayHighlighted(pojo.normalizedPhone, pojo.phone, fuzzyScore, contactPhone, context);
+            displayHighlighted(pojo.normalizedPhone, pojo.phone, contactPhone);
         } else {
             contactPhone.setVisibility(View.GONE);
         }
@@ -84,7 +99,7 @@ public class ContactsResult extends CallResult<ContactsPojo> {
             contactNickname.setVisibility(View.GONE);
         } else {
             contactNickname.setVisibility(View.VISIBLE);
-            displayHighlighted(pojo.normalizedNickname, pojo.getNickname(), fuzzyScore, contactNickname, context);
+            displayHighlighted(pojo.normalizedNickname, pojo.getNickname(), contactNickname);
         }
 
         // Contact photo
@@ -21,7 +21,6 @@ import fr.neamar.kiss.R;
 import fr.neamar.kiss.adapter.RecordAdapter;
 import fr.neamar.kiss.pojo.PhonePojo;
 import fr.neamar.kiss.ui.ListPopup;
-import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
 
 public class PhoneResult extends CallResult<PhonePojo> {
 
@@ -31,7 +30,7 @@ public class PhoneResult extends CallResult<PhonePojo> {
 
     @NonNull
     @Override
-    public View display(Context context, View view, @NonNull ViewGroup parent, FuzzyScore fuzzyScore) {
+    public View display(Context context, View view, @NonNull ViewGroup parent) {
         if (view == null)
             view = inflateFromId(context, R.layout.item_phone, parent);
 
@@ -38,8 +38,10 @@ import androidx.annotation.StringRes;
 import androidx.annotation.StyleableRes;
 
 import java.lang.ref.WeakReference;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import fr.neamar.kiss.BuildConfig;
 import fr.neamar.kiss.KissApplication;
@@ -53,6 +55,7 @@ import fr.neamar.kiss.pojo.AppPojo;
 import fr.neamar.kiss.pojo.ContactsPojo;
 import fr.neamar.kiss.pojo.PhonePojo;
 import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.ScoredPojo;
 import fr.neamar.kiss.pojo.SearchPojo;
 import fr.neamar.kiss.pojo.SettingPojo;
 import fr.neamar.kiss.pojo.ShortcutPojo;
@@ -69,9 +72,25 @@ public abstract class Result<T extends Pojo> {
      */
     @NonNull
     protected final T pojo;
+    /**
+     * Relevance of this result in the search it was created for
+     */
+    private int relevance;
+    /**
+     * Highlighted texts by normalized text, built on the search thread by
+     * {@link #prepareHighlights(Context, FuzzyScore)}. Null if nothing is highlighted
+     */
+    private Map<StringNormalizer.Result, CharSequence> highlightedTexts = null;
 
     Result(@NonNull T pojo) {
         this.pojo = pojo;
+        this.relevance = pojo.relevance;
+    }
+
+    public static Result<?> fromScoredPojo(QueryInterface parent, @NonNull ScoredPojo hit) {
+        Result<?> result = fromPojo(parent, hit.pojo);
+        result.relevance = hit.relevance;
+        return result;
     }
 
     public static Result<?> fromPojo(QueryInterface parent, @NonNull Pojo pojo) {
@@ -108,11 +127,20 @@ public abstract class Result<T extends Pojo> {
      * @param context     android context
      * @param convertView a view to be recycled
      * @param parent      view that provides a set of LayoutParams values
-     * @param fuzzyScore  information for highlighting search result
      * @return a view to display as item
      */
     @NonNull
-    public abstract View display(Context context, View convertView, @NonNull ViewGroup parent, FuzzyScore fuzzyScore);
+    public abstract View display(Context context, View convertView, @NonNull ViewGroup parent);
+
+    /**
+     * Highlight the query in the texts displayed by this result. Called on the search thread before
+     * the result is displayed, so that displaying rows never runs the scorer on the UI thread.
+     *
+     * @param context    android context
+     * @param fuzzyScore scorer of the query, with detailed match indices
+     */
+    public void prepareHighlights(Context context, FuzzyScore fuzzyScore) {
+    }
 
     @NonNull
     public View inflateFavorite(@NonNull Context context, @NonNull ViewGroup parent) {
@@ -138,27 +166,52 @@ public abstract class Result<T extends Pojo> {
         view.setText(enriched);
     }
 
-    boolean displayHighlighted(StringNormalizer.Result normalized, String text, FuzzyScore fuzzyScore,
-                               TextView view, Context context) {
-        MatchInfo matchInfo = fuzzyScore.match(normalized.codePoints);
+    /**
+     * Build the highlighted text of {@code text} if it matches the query, see {@link #displayHighlighted(StringNormalizer.Result, String, TextView)}
+     */
+    void prepareHighlight(@Nullable StringNormalizer.Result normalized, @Nullable String text, FuzzyScore fuzzyScore, Context context) {
+        if (normalized == null || text == null) {
+            return;
+        }
 
+        MatchInfo matchInfo = fuzzyScore.match(normalized);
         if (!matchInfo.match) {
-            view.setText(text);
-            return false;
+            return;
         }
 
         SpannableString enriched = new SpannableString(text);
         int primaryColor = UIColors.getPrimaryColor(context);
 
-        for (Pair<Integer, Integer> position : matchInfo.getMatchedSequences()) {
+        int[] highlightRanges = new int[2 * matchInfo.getMatchedIndicesCount()];
+        int sequenceCount = matchInfo.getMatchedSequences(highlightRanges);
+        for (int i = 0; i < sequenceCount; i++) {
             enriched.setSpan(
                     new ForegroundColorSpan(primaryColor),
-                    normalized.mapPosition(position.first),
-                    normalized.mapPosition(position.second),
+                    normalized.mapPosition(highlightRanges[2 * i]),
+                    normalized.mapPosition(highlightRanges[2 * i + 1]),
                     Spannable.SPAN_INCLUSIVE_INCLUSIVE
             );
         }
-        view.setText(enriched);
+
+        if (highlightedTexts == null) {
+            highlightedTexts = new IdentityHashMap<>(4);
+        }
+        highlightedTexts.put(normalized, enriched);
+    }
+
+    /**
+     * Display text highlighted by {@link #prepareHighlight(StringNormalizer.Result, String, FuzzyScore, Context)}
+     *
+     * @return true if the text matches the query
+     */
+    boolean displayHighlighted(@Nullable StringNormalizer.Result normalized, String text, TextView view) {
+        CharSequence highlighted = highlightedTexts == null ? null : highlightedTexts.get(normalized);
+        if (highlighted == null) {
+            view.setText(text);
+            return false;
+        }
+
+        view.setText(highlighted);
         return true;
     }
 
@@ -232,7 +285,7 @@ public abstract class Result<T extends Pojo> {
         }
 
         if (BuildConfig.DEBUG) {
-            adapter.add(new ListPopup.Item("Relevance: " + pojo.relevance));
+            adapter.add(new ListPopup.Item("Relevance: " + relevance));
         }
 
         return menu;
@@ -296,7 +349,7 @@ public abstract class Result<T extends Pojo> {
         try {
             JSONObject eventProperties = new JSONObject();
             eventProperties.put("type", pojo.getClass().getSimpleName());
-            eventProperties.put("relevance", pojo.relevance);
+            eventProperties.put("relevance", relevance);
             eventProperties.put("position", position);
             Amplitude.getInstance().logEvent("Result clicked", eventProperties);
         } catch (JSONException e) {
@@ -33,7 +33,6 @@ import fr.neamar.kiss.ui.ListPopup;
 import fr.neamar.kiss.utils.ClipboardUtils;
 import fr.neamar.kiss.utils.PackageManagerUtils;
 import fr.neamar.kiss.utils.UserHandle;
-import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
 
 public class SearchResult extends Result<SearchPojo> {
 
@@ -45,7 +44,7 @@ public class SearchResult extends Result<SearchPojo> {
 
     @NonNull
     @Override
-    public View display(Context context, View view, @NonNull ViewGroup parent, FuzzyScore fuzzyScore) {
+    public View display(Context context, View view, @NonNull ViewGroup parent) {
         if (view == null)
             view = inflateFromId(context, R.layout.item_search, parent);
 
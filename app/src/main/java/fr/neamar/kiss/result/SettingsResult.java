@@ -25,14 +25,19 @@ public class SettingsResult extends Result<SettingPojo> {
         super(pojo);
     }
 
+    @Override
+    public void prepareHighlights(Context context, FuzzyScore fuzzyScore) {
+        prepareHighlight(pojo.normalizedName, pojo.getName(), fuzzyScore, context);
+    }
+
     @NonNull
     @Override
-    public View display(Context context, View view, @NonNull ViewGroup parent, FuzzyScore fuzzyScore) {
+    public View display(Context context, View view, @NonNull ViewGroup parent) {
         if (view == null)
             view = inflateFromId(context, R.layout.item_setting, parent);
 
         TextView settingName = view.findViewById(R.id.item_setting_name);
-        displayHighlighted(pojo.normalizedName, pojo.getName(), fuzzyScore, settingName, context);
+        displayHighlighted(pojo.normalizedName, pojo.getName(), settingName);
 
         ImageView settingIcon = view.findViewById(R.id.item_setting_icon);
         if (!isHideIcons(context)) {
@@ -55,23 +55,30 @@ public class ShortcutsResult extends Result<ShortcutPojo> {
         super(pojo);
     }
 
+    @Override
+    public void prepareHighlights(Context context, FuzzyScore fuzzyScore) {
+        prepareHighlight(pojo.normalizedName, pojo.getName(), fuzzyScore, context);
+        if (!pojo.getTags().isEmpty()) {
+            prepareHighlight(pojo.getNormalizedTags(), pojo.getTags(), fuzzyScore, context);
+        }
+    }
+
     @NonNull
     @Override
-    public View display(final Context context, View view, @NonNull ViewGroup parent, FuzzyScore fuzzyScore) {
+    public View display(final Context context, View view, @NonNull ViewGroup parent) {
         if (view == null)
             view = inflateFromId(context, R.layout.item_shortcut, parent);
 
         TextView shortcutName = view.findViewById(R.id.item_app_name);
 
-        displayHighlighted(pojo.normalizedName, pojo.getName(), fuzzyScore, shortcutName, context);
+        displayHighlighted(pojo.normalizedName, pojo.getName(), shortcutName);
 
         TextView tagsView = view.findViewById(R.id.item_app_tag);
 
         // Hide tags view if tags are empty
         if (pojo.getTags().isEmpty()) {
             tagsView.setVisibility(View.GONE);
-        } else if (displayHighlighted(pojo.getNormalizedTags(), pojo.getTags(),
-                fuzzyScore, tagsView, context) || isTagsVisible(context)) {
+        } else if (displayHighlighted(pojo.getNormalizedTags(), pojo.getTags(), tagsView) || isTagsVisible(context)) {
             tagsView.setVisibility(View.VISIBLE);
         } else {
             tagsView.setVisibility(View.GONE);
@@ -1,10 +1,7 @@
 package fr.neamar.kiss.searcher;
 
-import android.content.Context;
-
 import java.util.ArrayList;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.Set;
 
 import fr.neamar.kiss.KissApplication;
@@ -12,6 +9,7 @@ import fr.neamar.kiss.MainActivity;
 import fr.neamar.kiss.pojo.AppPojo;
 import fr.neamar.kiss.pojo.Pojo;
 import fr.neamar.kiss.pojo.ReversedNameComparator;
+import fr.neamar.kiss.pojo.ScoredPojo;
 import fr.neamar.kiss.pojo.ShortcutPojo;
 
 /**
@@ -23,9 +21,10 @@ public class ApplicationsSearcher extends Searcher {
     }
 
     @Override
-    PriorityQueue<Pojo> getPojoProcessor(Context context) {
+    TopKCollector<ScoredPojo> createResultCollector() {
         // Sort from A to Z, so reverse (last item needs to be A, listview starts at the bottom)
-        return new PriorityQueue<>(DEFAULT_MAX_RESULTS, new ReversedNameComparator());
+        ReversedNameComparator nameComparator = new ReversedNameComparator();
+        return new TopKCollector<>(getMaxResultCount(), (lhs, rhs) -> nameComparator.compare(lhs.pojo, rhs.pojo));
     }
 
     @Override
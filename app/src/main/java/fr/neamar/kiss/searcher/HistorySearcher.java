@@ -4,6 +4,7 @@ import android.content.SharedPreferences;
 import android.content.pm.ShortcutInfo;
 import androidx.preference.PreferenceManager;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -15,6 +16,7 @@ import fr.neamar.kiss.db.HistoryMode;
 import fr.neamar.kiss.db.ShortcutRecord;
 import fr.neamar.kiss.pojo.AppPojo;
 import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.ScoredPojo;
 import fr.neamar.kiss.utils.ShortcutUtil;
 
 /**
@@ -77,13 +79,13 @@ public class HistorySearcher extends Searcher {
             }
         }
 
-        List<Pojo> pojos = dataHandler.getHistory(activity, getMaxResultCount(), excludedPojoById);
+        List<ScoredPojo> hits = dataHandler.getHistory(activity, getMaxResultCount(), excludedPojoById);
 
-        this.addResults(pojos);
+        this.addScoredResults(hits);
     }
 
     @Override
-    public boolean addResults(List<? extends Pojo> pojos) {
+    public boolean addScoredResults(List<ScoredPojo> hits) {
         MainActivity activity = activityWeakReference.get();
         if (activity == null) {
             return false;
@@ -91,14 +93,17 @@ public class HistorySearcher extends Searcher {
 
         DataHandler dataHandler = KissApplication.getApplication(activity).getDataHandler();
         if (dataHandler.getHistoryMode() != HistoryMode.ALPHABETICALLY) {
-            for (Pojo pojo : pojos) {
-                if (pojo.isDisabled()) {
+            List<ScoredPojo> adjustedHits = new ArrayList<>(hits.size());
+            for (ScoredPojo hit : hits) {
+                if (hit.pojo.isDisabled()) {
                     // Give penalty for disabled items, these should not be preferred
-                    pojo.relevance -= 200;
+                    hit = hit.withRelevance(hit.relevance - 200);
                 }
+                adjustedHits.add(hit);
             }
+            hits = adjustedHits;
         }
 
-        return super.addResults(pojos);
+        return super.addScoredResults(hits);
     }
 }
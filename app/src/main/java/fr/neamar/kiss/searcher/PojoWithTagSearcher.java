@@ -13,6 +13,7 @@ import fr.neamar.kiss.MainActivity;
 import fr.neamar.kiss.db.HistoryMode;
 import fr.neamar.kiss.pojo.Pojo;
 import fr.neamar.kiss.pojo.PojoWithTags;
+import fr.neamar.kiss.pojo.ScoredPojo;
 
 /**
  * Returns a list of all results that match the specified pojo with tags.
@@ -42,9 +43,10 @@ public abstract class PojoWithTagSearcher extends Searcher {
     }
 
     @Override
-    public boolean addResults(List<? extends Pojo> pojos) {
+    public boolean addScoredResults(List<ScoredPojo> hits) {
         List<Pojo> filteredPojos = new ArrayList<>();
-        for (Pojo pojo : pojos) {
+        for (ScoredPojo hit : hits) {
+            Pojo pojo = hit.pojo;
             if (!(pojo instanceof PojoWithTags)) {
                 continue;
             }
@@ -59,9 +61,9 @@ public abstract class PojoWithTagSearcher extends Searcher {
             return false;
         }
 
-        KissApplication.getApplication(activity).getDataHandler().applyRelevanceFromHistory(filteredPojos, getTaggedResultSortMode());
+        List<ScoredPojo> scoredPojos = KissApplication.getApplication(activity).getDataHandler().applyRelevanceFromHistory(filteredPojos, getTaggedResultSortMode());
 
-        return super.addResults(filteredPojos);
+        return super.addScoredResults(scoredPojos);
     }
 
     @NonNull
@@ -1,8 +1,11 @@
 package fr.neamar.kiss.searcher;
 
 import android.content.SharedPreferences;
+import android.util.Log;
+
 import androidx.preference.PreferenceManager;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -10,7 +13,7 @@ import fr.neamar.kiss.KissApplication;
 import fr.neamar.kiss.MainActivity;
 import fr.neamar.kiss.db.DBHelper;
 import fr.neamar.kiss.db.ValuedHistoryRecord;
-import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.ScoredPojo;
 
 /**
  * AsyncTask retrieving data from the providers and updating the view
@@ -18,8 +21,17 @@ import fr.neamar.kiss.pojo.Pojo;
  * @author dorvaryn
  */
 public class QuerySearcher extends Searcher {
+    private static final String TAG = QuerySearcher.class.getSimpleName();
     private static int MAX_RESULT_COUNT = -1;
     private HashMap<String, Integer> knownIds;
+    /**
+     * Highest relevance boost given to a pojo previously selected for this query
+     */
+    private int maxKnownIdBoost = 0;
+    /**
+     * Epoch of the result cache when this search started
+     */
+    private long cacheEpoch;
     /**
      * Store user preferences
      */
@@ -47,22 +59,64 @@ public class QuerySearcher extends Searcher {
     }
 
     @Override
-    public boolean addResults(List<? extends Pojo> pojos) {
-        for (Pojo pojo : pojos) {
-            if (pojo.isDisabled()) {
+    public boolean addScoredResults(List<ScoredPojo> hits) {
+        List<ScoredPojo> adjustedHits = new ArrayList<>(hits.size());
+        for (ScoredPojo hit : hits) {
+            if (hit.pojo.isDisabled()) {
                 // Give penalty for disabled items, these should not be preferred
-                pojo.relevance -= 200;
+                hit = hit.withRelevance(hit.relevance - 200);
             } else {
                 // Give a boost if item was previously selected for this query
-                Integer value = knownIds.get(pojo.id);
+                Integer value = knownIds.get(hit.pojo.id);
                 if (value != null) {
-                    pojo.relevance += 25 * value;
+                    hit = hit.withRelevance(hit.relevance + getKnownIdBoost(value));
                 }
             }
+            adjustedHits.add(hit);
         }
 
         // call super implementation to update the adapter
-        return super.addResults(pojos);
+        return super.addScoredResults(adjustedHits);
+    }
+
+    private static int getKnownIdBoost(int value) {
+        return 25 * value;
+    }
+
+    /**
+     * Providers compare hits before they are boosted in {@link #addScoredResults(List)}
+     */
+    @Override
+    public int getAdmissionThreshold() {
+        int threshold = super.getAdmissionThreshold();
+        return threshold == Integer.MIN_VALUE ? threshold : threshold - maxKnownIdBoost;
+    }
+
+    @Override
+    protected List<ScoredPojo> getCachedResults() {
+        SearchResultCache cache = getSearchResultCache();
+        if (cache == null || query == null)
+            return null;
+
+        cacheEpoch = cache.getEpoch();
+        return cache.get(query);
+    }
+
+    @Override
+    protected void onResultsRanked(List<ScoredPojo> rankedPojos) {
+        SearchResultCache cache = getSearchResultCache();
+        if (cache == null || query == null)
+            return;
+
+        cache.put(query, cacheEpoch, rankedPojos);
+        Log.v(TAG, cache.toString());
+    }
+
+    private SearchResultCache getSearchResultCache() {
+        MainActivity activity = activityWeakReference.get();
+        if (activity == null)
+            return null;
+        return KissApplication.getApplication(activity).getDataHandler().getSearchResultCache();
     }
 
     /**
@@ -71,7 +125,8 @@ public class QuerySearcher extends Searcher {
     @Override
     protected void doInBackground() {
         MainActivity activity = activityWeakReference.get();
-        if (activity == null)
+        SearchQuery searchQuery = getSearchQuery();
+        if (activity == null || searchQuery == null)
             return;
 
         // Have we ever made the same query and selected something ?
@@ -79,10 +134,11 @@ public class QuerySearcher extends Searcher {
         knownIds = new HashMap<>();
         for (ValuedHistoryRecord id : lastIdsForQuery) {
             knownIds.put(id.record, id.value);
+            maxKnownIdBoost = Math.max(maxKnownIdBoost, getKnownIdBoost(id.value));
         }
 
         // Request results via "addResult"
-        KissApplication.getApplication(activity).getDataHandler().requestResults(query, this);
+        KissApplication.getApplication(activity).getDataHandler().requestResults(searchQuery, this);
     }
 
     public static void clearMaxResultCountCache() {
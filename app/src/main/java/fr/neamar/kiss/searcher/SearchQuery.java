@@ -0,0 +1,105 @@
+package fr.neamar.kiss.searcher;
+
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+
+import java.util.Set;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScoreV1;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScoreV2;
+
+/**
+ * Query of a search, given to every provider: the query is normalized and the settings used while
+ * searching are read once per search, instead of once per provider (or per pojo).
+ * <p>
+ * Immutable, shared by providers running concurrently.
+ */
+public final class SearchQuery {
+    /**
+     * Query as typed, trimmed
+     */
+    @NonNull
+    public final String text;
+    /**
+     * Normalized query, not lowercase. Its signature is {@code normalized.signature}
+     */
+    @NonNull
+    public final StringNormalizer.Result normalized;
+    /**
+     * Query has initial consonants of Hangul, so the chosung of names need to be searched as well
+     */
+    public final boolean hasHangulInitial;
+    /**
+     * Use {@link FuzzyScoreV2} instead of {@link FuzzyScoreV1}
+     */
+    public final boolean fuzzyScoreV2;
+    /**
+     * Show excluded apps in search results
+     */
+    public final boolean excludedAppsEnabled;
+    /**
+     * Show web searches for the query
+     */
+    public final boolean webSearchEnabled;
+    /**
+     * Show device settings matching the query
+     */
+    public final boolean settingsEnabled;
+    /**
+     * Ids of favorites not to show in search results
+     */
+    @NonNull
+    public final Set<String> excludedFavoriteIds;
+
+    public SearchQuery(@NonNull String text, boolean fuzzyScoreV2, boolean excludedAppsEnabled,
+                       boolean webSearchEnabled, boolean settingsEnabled, @NonNull Set<String> excludedFavoriteIds) {
+        this.text = text;
+        this.normalized = StringNormalizer.normalizeWithResult(text, false);
+        this.hasHangulInitial = normalized.hasHangulInitial();
+        this.fuzzyScoreV2 = fuzzyScoreV2;
+        this.excludedAppsEnabled = excludedAppsEnabled;
+        this.webSearchEnabled = webSearchEnabled;
+        this.settingsEnabled = settingsEnabled;
+        this.excludedFavoriteIds = excludedFavoriteIds;
+    }
+
+    /**
+     * @param prefs               preferences of the app
+     * @param text                query as typed, trimmed
+     * @param excludedFavoriteIds ids of favorites not to show in search results
+     */
+    public static SearchQuery fromPreferences(@NonNull SharedPreferences prefs, @NonNull String text, @NonNull Set<String> excludedFavoriteIds) {
+        return new SearchQuery(text,
+                prefs.getBoolean("use-fuzzy-score-v2", false),
+                prefs.getBoolean("enable-excluded-apps", false),
+                prefs.getBoolean("enable-search", true),
+                prefs.getBoolean("enable-settings", true),
+                excludedFavoriteIds);
+    }
+
+    /**
+     * Scorers keep state while matching, every thread scoring pojos needs its own.
+     *
+     * @return new scorer for the normalized query
+     */
+    @NonNull
+    public FuzzyScore createFuzzyScore() {
+        return createFuzzyScore(false);
+    }
+
+    /**
+     * @param detailedMatchIndices whether matched positions are needed, e.g. to highlight the query
+     * @return new scorer for the normalized query
+     */
+    @NonNull
+    public FuzzyScore createFuzzyScore(boolean detailedMatchIndices) {
+        if (fuzzyScoreV2) {
+            return new FuzzyScoreV2(normalized.codePoints, detailedMatchIndices);
+        } else {
+            return new FuzzyScoreV1(normalized.codePoints, detailedMatchIndices);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package fr.neamar.kiss.searcher;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.neamar.kiss.pojo.ScoredPojo;
+
+/**
+ * Ranked results of the last queries, so that typing a query again (backspace and retype, or
+ * reopening the launcher) displays them immediately, while the search runs again to revalidate them.
+ * <p>
+ * Results are only valid for the data they were computed from: every change to searchable data
+ * (provider reload, tags, exclusions, preferences, history) bumps the epoch of the cache, which
+ * makes all cached results stale.
+ * <p>
+ * This is called from the search thread and from the main thread.
+ */
+public final class SearchResultCache {
+    static final int MAX_ENTRIES = 32;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private volatile long epoch = 0;
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    /**
+     * Make all cached results stale
+     */
+    public synchronized void invalidate() {
+        epoch++;
+        entries.clear();
+    }
+
+    /**
+     * @return current epoch, to be given to {@link #put(String, long, List)} with results
+     * computed from the data as it is now
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @param query query as given to the providers
+     * @return ranked results of the query from lowest to highest, null if unknown or stale
+     */
+    @Nullable
+    public synchronized List<ScoredPojo> get(@NonNull String query) {
+        Entry entry = entries.get(query);
+        if (entry == null || entry.epoch != epoch) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.rankedPojos;
+    }
+
+    /**
+     * @param query       query as given to the providers
+     * @param epoch       epoch when the search started, results are dropped if data changed since
+     * @param rankedPojos results of the query from lowest to highest, must not be modified afterwards
+     */
+    public synchronized void put(@NonNull String query, long epoch, @NonNull List<ScoredPojo> rankedPojos) {
+        if (epoch != this.epoch) {
+            return;
+        }
+        entries.put(query, new Entry(epoch, rankedPojos));
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return "Search result cache: " + entries.size() + " entries, " + hitCount + " hits, " + missCount + " misses";
+    }
+
+    private static final class Entry {
+        final long epoch;
+        final List<ScoredPojo> rankedPojos;
+
+        Entry(long epoch, List<ScoredPojo> rankedPojos) {
+            this.epoch = epoch;
+            this.rankedPojos = rankedPojos;
+        }
+    }
+}
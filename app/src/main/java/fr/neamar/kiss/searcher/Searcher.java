@@ -1,12 +1,12 @@
 package fr.neamar.kiss.searcher;
 
 
-import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.CallSuper;
+import androidx.annotation.NonNull;
 import com.amplitude.api.Amplitude;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -14,17 +14,22 @@ import org.json.JSONObject;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import fr.neamar.kiss.KissApplication;
 import fr.neamar.kiss.MainActivity;
 import fr.neamar.kiss.pojo.Pojo;
 import fr.neamar.kiss.pojo.RelevanceComparator;
+import fr.neamar.kiss.pojo.ScoredPojo;
 import fr.neamar.kiss.result.Result;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
 
 public abstract class Searcher implements Runnable {
 
@@ -32,9 +37,43 @@ public abstract class Searcher implements Runnable {
 
     // define a different thread than the default AsyncTask thread or else we will block everything else that uses AsyncTask while we search
     public static final ExecutorService SEARCH_THREAD = Executors.newSingleThreadExecutor();
+    // bounded pool used to score providers concurrently when parallel search is enabled
+    public static final ForkJoinPool SEARCH_POOL = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
     static final int DEFAULT_MAX_RESULTS = 50;
     final WeakReference<MainActivity> activityWeakReference;
-    private final PriorityQueue<Pojo> processedPojos;
+    private TopKCollector<ScoredPojo> processedPojos;
+    /**
+     * Collected hits ranked from lowest to highest, computed in the background once all providers are done
+     */
+    private List<ScoredPojo> rankedPojos = Collections.emptyList();
+    /**
+     * Ranked hits displayed while this search runs: hits of a previous identical search, or the
+     * best hits found before slower providers are done. Null if none
+     */
+    private volatile List<ScoredPojo> displayedPojos = null;
+    /**
+     * True when {@link #displayedPojos} are the hits of all fast providers, see {@link #publishPartialResults()}.
+     * Their rows are kept in place by the final results. Rows displayed before, e.g. once the budget
+     * elapsed, may miss better hits of fast providers and are ranked again
+     */
+    private volatile boolean displayedRowsKept = false;
+    /**
+     * True when {@link #displayedPojos} are cached results, which are not replaced by partial results
+     */
+    private volatile boolean cachedResultsDisplayed = false;
+    private final Object partialResultsLock = new Object();
+    /**
+     * Results to display once the search is done, created in the background with their highlights.
+     * Null when the results already displayed are still right
+     */
+    private List<Result<?>> results = null;
+    /**
+     * Time after the start of the search after which the best hits found so far are displayed,
+     * in ms. Negative to only display hits once all providers are done
+     */
+    private long partialResultsBudget = -1;
+    private long searchStart;
+    private final AtomicBoolean budgetResultsPublished = new AtomicBoolean(false);
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private volatile Future<?> task;
     private volatile boolean cancelled = false;
@@ -45,16 +84,23 @@ public abstract class Searcher implements Runnable {
      */
     private final boolean isRefresh;
     protected final String query;
+    /**
+     * Query with the settings of this search, built once on the background thread. Null without query
+     */
+    private SearchQuery searchQuery = null;
 
     Searcher(MainActivity activity, String query, boolean isRefresh) {
         this.isRefresh = isRefresh;
         this.query = query == null ? null : query.trim();
         this.activityWeakReference = new WeakReference<>(activity);
-        this.processedPojos = getPojoProcessor(activity);
     }
 
-    PriorityQueue<Pojo> getPojoProcessor(Context context) {
-        return new PriorityQueue<>(DEFAULT_MAX_RESULTS, new RelevanceComparator());
+    /**
+     * Create the collector receiving all hits added by the providers.
+     * Only the best {@link #getMaxResultCount()} hits are kept, with the highest relevance by default.
+     */
+    TopKCollector<ScoredPojo> createResultCollector() {
+        return new TopKCollector<>(getMaxResultCount(), new RelevanceComparator());
     }
 
     protected int getMaxResultCount() {
@@ -62,22 +108,167 @@ public abstract class Searcher implements Runnable {
     }
 
     /**
-     * Add single pojo to results.
+     * Called on the background thread before the search starts.
+     *
+     * @return query given to the providers and used to highlight results, null if there is no query
+     */
+    protected SearchQuery createSearchQuery() {
+        MainActivity activity = activityWeakReference.get();
+        if (activity == null || query == null)
+            return null;
+        return KissApplication.getApplication(activity).getDataHandler().createSearchQuery(query);
+    }
+
+    /**
+     * @return query of this search, null if there is no query or before the search started
+     */
+    protected SearchQuery getSearchQuery() {
+        return searchQuery;
+    }
+
+    /**
+     * Called on the background thread before the search starts.
+     *
+     * @return ranked hits of a previous identical search, from lowest to highest, to display
+     * until this search is done. Null if unknown
+     */
+    protected List<ScoredPojo> getCachedResults() {
+        return null;
+    }
+
+    /**
+     * Called on the background thread once all hits of a search that wasn't cancelled are ranked
+     *
+     * @param rankedPojos hits from lowest to highest, must not be modified
+     */
+    protected void onResultsRanked(List<ScoredPojo> rankedPojos) {
+    }
+
+    /**
+     * Display the best hits found so far when a provider adds hits after {@code budget} ms, and
+     * again when {@link #publishPartialResults()} is called, without waiting for all providers.
+     * Called on the background thread before providers are asked for results.
+     *
+     * @param budget time in ms from the start of the search, negative to wait for all providers
+     */
+    public void setPartialResultsBudget(long budget) {
+        this.partialResultsBudget = budget;
+    }
+
+    /**
+     * Display the hits of the fast providers while slow providers are still running, if enabled
+     * with {@link #setPartialResultsBudget(long)}. These rows then stay in place, hits of slow
+     * providers are added after them. Only the first call of a search has an effect.
+     * This is called from the background threads once all fast providers are done.
+     */
+    public void publishPartialResults() {
+        publishPartialResults(true);
+    }
+
+    /**
+     * Display the hits found so far, if enabled with {@link #setPartialResultsBudget(long)}, e.g. once
+     * a provider scored the pojos that are likely its best matches. The other candidates are still
+     * being scored, so these rows are ranked again later.
+     * This is called from the background threads by the providers, possibly several times.
+     */
+    public void publishFirstResults() {
+        publishPartialResults(false);
+    }
+
+    /**
+     * @param keepRows true if the best hits can't change anymore, except for hits of slow providers
+     */
+    private void publishPartialResults(boolean keepRows) {
+        if (partialResultsBudget < 0 || cachedResultsDisplayed)
+            return;
+
+        synchronized (partialResultsLock) {
+            if (displayedRowsKept)
+                return;
+
+            List<ScoredPojo> partialPojos;
+            synchronized (this.processedPojos) {
+                partialPojos = this.processedPojos.snapshotAscending();
+            }
+            // an empty list would only flash "no result"
+            if (partialPojos.isEmpty() || isCancelled())
+                return;
+
+            List<ScoredPojo> displayed = displayedPojos;
+            displayedRowsKept = keepRows;
+            if (displayed != null && sameResults(displayed, partialPojos))
+                return;
+
+            List<Result<?>> partialResults = createResults(partialPojos);
+            displayedPojos = partialPojos;
+            mainHandler.post(() -> onIntermediateResults(partialResults));
+        }
+    }
+
+    /**
+     * Add single pojo to results, with its own relevance.
+     * This is called from the background thread by the providers.
+     */
+    public final boolean addResult(Pojo pojo) {
+        return addResult(ScoredPojo.of(pojo));
+    }
+
+    /**
+     * Add single scored pojo to results.
      * This is called from the background thread by the providers.
      */
-    public final boolean addResult(Pojo pojos) {
-        return addResults(Collections.singletonList(pojos));
+    public final boolean addResult(ScoredPojo hit) {
+        return addScoredResults(Collections.singletonList(hit));
     }
 
     /**
-     * Add one or more pojos to results.
+     * Add one or more pojos to results, with their own relevance.
      * This is called from the background thread by the providers.
      */
-    public boolean addResults(List<? extends Pojo> pojos) {
+    public final boolean addResults(List<? extends Pojo> pojos) {
+        List<ScoredPojo> hits = new ArrayList<>(pojos.size());
+        for (Pojo pojo : pojos) {
+            hits.add(ScoredPojo.of(pojo));
+        }
+        return addScoredResults(hits);
+    }
+
+    /**
+     * Add one or more scored pojos to results.
+     * This is called from the background thread by the providers, possibly from multiple threads at once.
+     * Subclasses may adjust relevance by replacing hits, pojos themselves must not be modified.
+     */
+    public boolean addScoredResults(List<ScoredPojo> hits) {
         if (isCancelled())
             return false;
 
-        return this.processedPojos.addAll(pojos);
+        synchronized (this.processedPojos) {
+            for (ScoredPojo hit : hits) {
+                this.processedPojos.offer(hit);
+            }
+        }
+        if (partialResultsBudget >= 0 && System.currentTimeMillis() - searchStart >= partialResultsBudget
+                && budgetResultsPublished.compareAndSet(false, true)) {
+            // fast providers may still find better hits, these rows are ranked again later
+            publishPartialResults(false);
+        }
+        return true;
+    }
+
+    /**
+     * Relevance below which a pojo will be rejected because there are already enough better results.
+     * Providers use this to skip posting hits that can't be displayed anyway. The threshold only
+     * grows during a search, a value read earlier is still safe to use.
+     * Subclasses adjusting relevance in {@link #addScoredResults(List)} must lower it by the highest boost.
+     *
+     * @return relevance of the weakest retained result, or {@link Integer#MIN_VALUE} while the result list isn't full
+     */
+    public int getAdmissionThreshold() {
+        ScoredPojo threshold;
+        synchronized (this.processedPojos) {
+            threshold = this.processedPojos.peekThreshold();
+        }
+        return threshold == null ? Integer.MIN_VALUE : threshold.relevance;
     }
 
     @CallSuper
@@ -106,8 +297,36 @@ public abstract class Searcher implements Runnable {
         
         try {
             // 백그라운드 작업 수행
+            searchStart = System.currentTimeMillis();
+            processedPojos = createResultCollector();
+            searchQuery = createSearchQuery();
+            List<ScoredPojo> cachedPojos = getCachedResults();
+            if (cachedPojos != null) {
+                List<Result<?>> cachedResults = createResults(cachedPojos);
+                displayedPojos = cachedPojos;
+                cachedResultsDisplayed = true;
+                mainHandler.post(() -> onIntermediateResults(cachedResults));
+            }
             doInBackground();
-            
+
+            // 결과 정렬 (백그라운드 스레드에서)
+            rankedPojos = processedPojos.drainAscending();
+            if (!isCancelled()) {
+                onResultsRanked(rankedPojos);
+            }
+            // results already displayed are usually still right
+            List<ScoredPojo> displayed = displayedPojos;
+            List<ScoredPojo> finalPojos = rankedPojos;
+            if (displayed != null && displayedRowsKept) {
+                // hits of all fast providers stay in place, hits of slower providers are added after them.
+                // Other displayed results are ranked again: cached results may be stale, and results
+                // displayed once the budget elapsed may miss better hits
+                finalPojos = mergeLateHits(displayed, rankedPojos);
+            }
+            if (displayed == null || !sameResults(displayed, finalPojos)) {
+                results = createResults(finalPojos);
+            }
+
             // 결과 처리 (UI 스레드에서)
             mainHandler.post(this::onPostExecute);
         } catch (Exception e) {
@@ -129,23 +348,9 @@ public abstract class Searcher implements Runnable {
 
         hideActivityLoader(activity);
 
-        if (this.processedPojos.isEmpty()) {
-            activity.adapter.clear();
-        } else {
-            PriorityQueue<Pojo> queue = this.processedPojos;
-            int maxResults = getMaxResultCount();
-            while (queue.size() > maxResults)
-                queue.poll();
-            List<Result<?>> results = new ArrayList<>(queue.size());
-            while (queue.peek() != null) {
-                results.add(Result.fromPojo(activity, queue.poll()));
-            }
-
-            activity.beforeListChange();
-
-            activity.adapter.updateResults(activity, results, isRefresh, query);
-
-            activity.afterListChange();
+        if (results != null) {
+            // keep scroll position of results displayed meanwhile, hits of slower providers are merged in
+            displayResults(activity, results, isRefresh || displayedPojos != null);
         }
 
         activity.resetTask();
@@ -164,6 +369,101 @@ public abstract class Searcher implements Runnable {
         }
     }
 
+    private void onIntermediateResults(List<Result<?>> intermediateResults) {
+        if (isCancelled()) {
+            return;
+        }
+
+        MainActivity activity = activityWeakReference.get();
+        if (activity == null)
+            return;
+
+        displayResults(activity, intermediateResults, isRefresh);
+    }
+
+    /**
+     * Create the results of given hits, with the query highlighted in their texts.
+     * Called on the background thread, so that the UI thread never runs the scorer.
+     */
+    private List<Result<?>> createResults(List<ScoredPojo> hits) {
+        MainActivity activity = activityWeakReference.get();
+        if (activity == null || hits.isEmpty())
+            return Collections.emptyList();
+
+        FuzzyScore fuzzyScore = null;
+        if (searchQuery != null && searchQuery.normalized.length() > 0) {
+            fuzzyScore = searchQuery.createFuzzyScore(true);
+        }
+
+        List<Result<?>> created = new ArrayList<>(hits.size());
+        for (ScoredPojo hit : hits) {
+            Result<?> result = Result.fromScoredPojo(activity, hit);
+            if (fuzzyScore != null) {
+                result.prepareHighlights(activity, fuzzyScore);
+            }
+            created.add(result);
+        }
+        return created;
+    }
+
+    /**
+     * @return true if both lists display the same results in the same order
+     */
+    static boolean sameResults(@NonNull List<ScoredPojo> a, @NonNull List<ScoredPojo> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            // pojos of single searches (calculator, web search...) are created again, compare their ids
+            if (a.get(i).relevance != b.get(i).relevance || !a.get(i).pojo.id.equals(b.get(i).pojo.id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merge hits of slower providers into hits already displayed, without moving displayed rows:
+     * displayed hits keep their order and hits found later are ranked after them, as long as
+     * there is room for them.
+     *
+     * @param displayed hits displayed, from lowest to highest
+     * @param ranked    all hits of the search, from lowest to highest
+     * @return merged hits, from lowest to highest, as many as {@code ranked}
+     */
+    @NonNull
+    static List<ScoredPojo> mergeLateHits(@NonNull List<ScoredPojo> displayed, @NonNull List<ScoredPojo> ranked) {
+        Set<String> displayedIds = new HashSet<>();
+        for (ScoredPojo hit : displayed) {
+            displayedIds.add(hit.pojo.id);
+        }
+        List<ScoredPojo> lateHits = new ArrayList<>();
+        for (ScoredPojo hit : ranked) {
+            if (!displayedIds.contains(hit.pojo.id)) {
+                lateHits.add(hit);
+            }
+        }
+
+        // best late hits are last, next to the displayed ones
+        int lateCount = Math.min(lateHits.size(), Math.max(0, ranked.size() - displayed.size()));
+        List<ScoredPojo> merged = new ArrayList<>(lateCount + displayed.size());
+        merged.addAll(lateHits.subList(lateHits.size() - lateCount, lateHits.size()));
+        merged.addAll(displayed);
+        return merged;
+    }
+
+    private void displayResults(MainActivity activity, List<Result<?>> results, boolean isRefresh) {
+        if (results.isEmpty()) {
+            activity.adapter.clear();
+        } else {
+            activity.beforeListChange();
+
+            activity.adapter.updateResults(results, isRefresh);
+
+            activity.afterListChange();
+        }
+    }
+
     protected void onCancelled() {
         MainActivity activity = activityWeakReference.get();
         if (activity == null)
@@ -0,0 +1,158 @@
+package fr.neamar.kiss.searcher;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bounded collector keeping only the best {@code capacity} elements offered to it.
+ * <p>
+ * Elements are stored in a fixed-size binary min-heap ordered by the given comparator:
+ * once the collector is full, the root of the heap is the weakest retained element and acts as
+ * admission threshold. Any element not better than this threshold is rejected with a single
+ * comparison, without touching the heap.
+ *
+ * @param <T> type of collected elements
+ */
+public class TopKCollector<T> {
+    private static final int INITIAL_HEAP_SIZE = 64;
+
+    private final Comparator<? super T> comparator;
+    private final int capacity;
+    private Object[] heap;
+    private int size = 0;
+
+    /**
+     * @param capacity   max number of elements to keep, use {@link Integer#MAX_VALUE} for no limit
+     * @param comparator ordering of elements, greater elements are kept
+     */
+    public TopKCollector(int capacity, Comparator<? super T> comparator) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.comparator = comparator;
+        this.heap = new Object[Math.min(capacity, INITIAL_HEAP_SIZE)];
+    }
+
+    /**
+     * Offer an element to this collector.
+     *
+     * @param element element to add
+     * @return true if element was retained, false if it was rejected by the admission threshold
+     */
+    public boolean offer(T element) {
+        if (size < capacity) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(capacity, (heap.length * 3L) / 2 + 1));
+            }
+            siftUp(size++, element);
+            return true;
+        }
+
+        // Collector is full: compare with the weakest retained element
+        if (capacity == 0 || comparator.compare(element, elementAt(0)) <= 0) {
+            return false;
+        }
+        siftDown(0, element);
+        return true;
+    }
+
+    /**
+     * @return the weakest retained element when this collector is full, null while there is still room for any element
+     */
+    @Nullable
+    public T peekThreshold() {
+        if (size < capacity || size == 0) {
+            return null;
+        }
+        return elementAt(0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return copy of retained elements, sorted from lowest to highest. This collector is not modified
+     */
+    public List<T> snapshotAscending() {
+        List<T> sorted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sorted.add(elementAt(i));
+        }
+        sorted.sort(comparator);
+        return sorted;
+    }
+
+    /**
+     * Remove all retained elements from this collector.
+     *
+     * @return retained elements, sorted from lowest to highest
+     */
+    public List<T> drainAscending() {
+        int count = size;
+
+        // in place heap sort: repeatedly move the root (lowest element) behind the shrinking heap
+        for (int last = count - 1; last > 0; last--) {
+            T lowest = elementAt(0);
+            T moved = elementAt(last);
+            heap[last] = lowest;
+            size = last;
+            siftDown(0, moved);
+        }
+
+        // heap array now holds elements from highest to lowest
+        List<T> sorted = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            sorted.add(elementAt(i));
+            heap[i] = null;
+        }
+        size = 0;
+        return sorted;
+    }
+
+    private void siftUp(int index, T element) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            T parentElement = elementAt(parent);
+            if (comparator.compare(element, parentElement) >= 0) {
+                break;
+            }
+            heap[index] = parentElement;
+            index = parent;
+        }
+        heap[index] = element;
+    }
+
+    private void siftDown(int index, T element) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            T childElement = elementAt(child);
+            int right = child + 1;
+            if (right < size && comparator.compare(childElement, elementAt(right)) > 0) {
+                child = right;
+                childElement = elementAt(right);
+            }
+            if (comparator.compare(element, childElement) <= 0) {
+                break;
+            }
+            heap[index] = childElement;
+            index = child;
+        }
+        heap[index] = element;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index) {
+        return (T) heap[index];
+    }
+}
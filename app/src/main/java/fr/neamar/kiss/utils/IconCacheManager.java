@@ -15,6 +15,7 @@ import com.bumptech.glide.request.RequestOptions;
 import com.bumptech.glide.request.target.CustomTarget;
 import com.bumptech.glide.request.transition.Transition;
 
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -163,6 +164,20 @@ public class IconCacheManager {
         incrementUsage(key);
     }
     
+    /**
+     * 키가 주어진 접두사로 시작하는 아이콘 제거 (패키지 업데이트 시)
+     */
+    public void removeIcons(String keyPrefix) {
+        for (LruCache<String, Drawable> cache : Arrays.asList(frequentCache, recentCache, memoryCache)) {
+            for (String key : cache.snapshot().keySet()) {
+                if (key.startsWith(keyPrefix)) {
+                    cache.remove(key);
+                }
+            }
+        }
+        usageCount.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+    
     /**
      * Glide를 통한 비동기 아이콘 로딩
      */
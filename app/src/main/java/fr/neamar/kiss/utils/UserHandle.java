@@ -93,6 +93,13 @@ public class UserHandle implements Parcelable {
     }
 
 
+    /**
+     * @return serial number of the user, 0 for the current user
+     */
+    public long getSerial() {
+        return this.serial;
+    }
+
     public boolean isCurrentUser() {
         return (this.handle == null);
     }
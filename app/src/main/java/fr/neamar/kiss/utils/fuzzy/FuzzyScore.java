@@ -1,5 +1,7 @@
 package fr.neamar.kiss.utils.fuzzy;
 
+import fr.neamar.kiss.normalizer.StringNormalizer;
+
 public interface FuzzyScore {
 
     FuzzyScore setFullWordBonus(int full_word_bonus);
@@ -21,4 +23,25 @@ public interface FuzzyScore {
     MatchInfo match(CharSequence text);
 
     MatchInfo match(int[] text);
+
+    /**
+     * Same as {@link #match(int[])} for a normalized text, but texts that can't contain every
+     * character of the pattern are rejected with their {@link StringNormalizer.Result#signature}
+     * without being scored, the score of rejected texts is 0.
+     *
+     * @param text normalized string where to search
+     * @return {@link MatchInfo}, with match set to true if each character in pattern is found sequentially within text
+     */
+    MatchInfo match(StringNormalizer.Result text);
+
+    /**
+     * Same as {@link #match(StringNormalizer.Result)} for a text stored in a slice of a larger array.
+     *
+     * @param text      codepoints containing the text
+     * @param offset    index of the first codepoint of the text
+     * @param length    number of codepoints of the text
+     * @param signature {@link StringNormalizer#signature(int[])} of the text
+     * @return {@link MatchInfo}, matched indices are relative to {@code offset}
+     */
+    MatchInfo match(int[] text, int offset, int length, long signature);
 }
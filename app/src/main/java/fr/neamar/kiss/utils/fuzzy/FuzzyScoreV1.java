@@ -1,5 +1,7 @@
 package fr.neamar.kiss.utils.fuzzy;
 
+import fr.neamar.kiss.normalizer.StringNormalizer;
+
 /**
  * A Sublime Text inspired fuzzy match algorithm
  * https://github.com/forrestthewoods/lib_fts/blob/master/docs/fuzzy_match.md
@@ -9,9 +11,17 @@ package fr.neamar.kiss.utils.fuzzy;
  * match("otw", "Frostwolf Grunt", info) = true, info.score = -13
  */
 public class FuzzyScoreV1 implements FuzzyScore {
+    /**
+     * sentinel for index of best letter if there is none
+     */
+    private static final int NO_LETTER = -1;
+
     private final int patternLength;
-    private final int[] patternChar;
     private final int[] patternLower;
+    /**
+     * {@link StringNormalizer#signature(int[])} of the pattern
+     */
+    private final long patternSignature;
     /**
      * bonus if all characters match (useful for short queries)
      * E.g. "js" should match "js" with a higher score than "John Smith"
@@ -43,16 +53,19 @@ public class FuzzyScoreV1 implements FuzzyScore {
     private int unmatched_letter_penalty;
 
     private final MatchInfo matchInfo;
+    /**
+     * Scratch buffer for code points of {@link #match(CharSequence)}
+     */
+    private int[] textCodepoints = new int[0];
 
     public FuzzyScoreV1(int[] pattern, boolean detailedMatchIndices) {
         super();
         patternLength = pattern.length;
-        patternChar = new int[patternLength];
         patternLower = new int[patternLength];
         for (int i = 0; i < patternLower.length; i += 1) {
-            patternChar[i] = pattern[i];
             patternLower[i] = Character.toLowerCase(pattern[i]);
         }
+        patternSignature = StringNormalizer.signature(patternLower);
         full_word_bonus = 100;
         adjacency_bonus = 10;
         separator_bonus = 5;
@@ -120,17 +133,20 @@ public class FuzzyScoreV1 implements FuzzyScore {
      */
     @Override
     public MatchInfo match(CharSequence text) {
+        int textLength = text.length();
+        int codepointCount = Character.codePointCount(text, 0, textLength);
+        if (textCodepoints.length < codepointCount) {
+            textCodepoints = new int[Math.max(codepointCount, textCodepoints.length * 2)];
+        }
         int idx = 0;
         int idxCodepoint = 0;
-        int textLength = text.length();
-        int[] codepoints = new int[Character.codePointCount(text, 0, textLength)];
         while (idx < textLength) {
             int codepoint = Character.codePointAt(text, idx);
-            codepoints[idxCodepoint] = codepoint;
+            textCodepoints[idxCodepoint] = codepoint;
             idx += Character.charCount(codepoint);
             idxCodepoint += 1;
         }
-        return match(codepoints);
+        return match(textCodepoints, 0, codepointCount);
     }
 
     /**
@@ -139,52 +155,76 @@ public class FuzzyScoreV1 implements FuzzyScore {
      */
     @Override
     public MatchInfo match(int[] text) {
+        return match(text, 0, text.length);
+    }
+
+    @Override
+    public MatchInfo match(StringNormalizer.Result text) {
+        return match(text.codePoints, 0, text.codePoints.length, text.signature);
+    }
+
+    @Override
+    public MatchInfo match(int[] text, int offset, int length, long signature) {
+        if ((signature & patternSignature) != patternSignature) {
+            matchInfo.match = false;
+            matchInfo.score = 0;
+            if (matchInfo.matchedIndices != null) {
+                matchInfo.clearMatchedIndices();
+            }
+            return matchInfo;
+        }
+        return match(text, offset, length);
+    }
+
+    /**
+     * @param text      string converted to codepoints
+     * @param offset    index of first codepoint to use from {@code text}
+     * @param strLength number of codepoints to use from {@code text}
+     * @return {@link MatchInfo}, with match set to true if each character in pattern is found sequentially within text.
+     * Matched indices are relative to {@code offset}.
+     */
+    private MatchInfo match(int[] text, int offset, int strLength) {
         // Loop variables
         int score = 0;
         int patternIdx = 0;
         int strIdx = 0;
-        int strLength = text.length;
         boolean fullWord = false;
         boolean prevMatched = false;
         boolean prevLower = false;
         boolean prevSeparator = true;       // true so if first letter match gets separator bonus
 
-        // Use "best" matched letter if multiple string letters match the pattern
-        Integer bestLetter = null;
-        Integer bestLower = null;
-        Integer bestLetterIdx = null;
+        // Use "best" matched letter if multiple string letters match the pattern,
+        // there is no best letter while bestLetterIdx is NO_LETTER
+        int bestLower = 0;
+        int bestLetterIdx = NO_LETTER;
         int bestLetterScore = 0;
 
         if (matchInfo.matchedIndices != null) {
-            matchInfo.matchedIndices.clear();
+            matchInfo.clearMatchedIndices();
         }
 
         // Loop over strings
         while (strIdx != strLength) {
-            Integer patternChar = null;
-            Integer patternLower = null;
-            if (patternIdx != patternLength) {
-                patternChar = this.patternChar[patternIdx];
-                patternLower = this.patternLower[patternIdx];
-            }
-            int strChar = text[strIdx];
+            boolean hasPatternChar = patternIdx != patternLength;
+            int patternLower = hasPatternChar ? this.patternLower[patternIdx] : 0;
+            int strChar = text[offset + strIdx];
             int strLower = Character.toLowerCase(strChar);
             int strUpper = Character.toUpperCase(strChar);
             boolean isWhitespace = Character.isWhitespace(strChar);
+            boolean hasBestLetter = bestLetterIdx != NO_LETTER;
 
-            boolean nextMatch = patternChar != null && patternLower == strLower;
-            boolean rematch = bestLetter != null && bestLower == strLower;
+            boolean nextMatch = hasPatternChar && patternLower == strLower;
+            boolean rematch = hasBestLetter && bestLower == strLower;
 
-            boolean advanced = nextMatch && bestLetter != null;
-            boolean patternRepeat = bestLetter != null && patternChar != null && patternLower.equals(bestLower);
+            boolean advanced = nextMatch && hasBestLetter;
+            boolean patternRepeat = hasBestLetter && hasPatternChar && patternLower == bestLower;
             if (advanced || patternRepeat) {
                 score += bestLetterScore;
                 if (matchInfo.matchedIndices != null) {
-                    matchInfo.matchedIndices.add(bestLetterIdx);
+                    matchInfo.addMatchedIndex(bestLetterIdx);
                 }
-                bestLetter = null;
-                bestLower = null;
-                bestLetterIdx = null;
+                bestLower = 0;
+                bestLetterIdx = NO_LETTER;
                 bestLetterScore = 0;
             }
 
@@ -228,11 +268,10 @@ public class FuzzyScoreV1 implements FuzzyScore {
                 if (newScore >= bestLetterScore) {
 
                     // Apply penalty for now skipped letter
-                    if (bestLetter != null) {
+                    if (bestLetterIdx != NO_LETTER) {
                         score += unmatched_letter_penalty;
                     }
 
-                    bestLetter = strChar;
                     bestLower = strLower;
                     bestLetterIdx = strIdx;
                     bestLetterScore = newScore;
@@ -257,10 +296,10 @@ public class FuzzyScoreV1 implements FuzzyScore {
         }
 
         // Apply score for last match
-        if (bestLetter != null) {
+        if (bestLetterIdx != NO_LETTER) {
             score += bestLetterScore;
             if (matchInfo.matchedIndices != null) {
-                matchInfo.matchedIndices.add(bestLetterIdx);
+                matchInfo.addMatchedIndex(bestLetterIdx);
             }
         }
         // Last word full match bonus
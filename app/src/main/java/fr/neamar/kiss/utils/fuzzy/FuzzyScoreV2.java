@@ -1,7 +1,6 @@
 package fr.neamar.kiss.utils.fuzzy;
 
-import java.util.ArrayList;
-import java.util.List;
+import fr.neamar.kiss.normalizer.StringNormalizer;
 
 /**
  * A Sublime Text inspired fuzzy match algorithm
@@ -12,8 +11,17 @@ import java.util.List;
  * match("otw", "Frostwolf Grunt", info) = true, info.score = -13
  */
 public class FuzzyScoreV2 implements FuzzyScore {
+    /**
+     * max depth of recursion, alternative matches deeper than this are not considered
+     */
+    private static final int RECURSION_LIMIT = 10;
+
     private final int patternLength;
     private final int[] patternLower;
+    /**
+     * {@link StringNormalizer#signature(int[])} of the pattern
+     */
+    private final long patternSignature;
 
     /**
      * bonus for adjacent matches
@@ -46,6 +54,26 @@ public class FuzzyScoreV2 implements FuzzyScore {
 
     private final MatchInfo matchInfo;
 
+    /**
+     * Scratch buffers, one row of matched indices per recursion depth.
+     * Reused for every match, so this scorer doesn't allocate while matching.
+     */
+    private final int[][] matchesByDepth;
+    private final int[][] bestRecursiveMatchesByDepth;
+    /**
+     * Scratch buffer for code points of {@link #match(CharSequence)}
+     */
+    private int[] textCodepoints = new int[0];
+    /**
+     * Score of the last successful {@link #matchRecursive} call
+     */
+    private int recursiveScore;
+    /**
+     * Index of the first codepoint of the text being matched, indices of {@link #matchRecursive}
+     * are relative to it
+     */
+    private int strOffset;
+
     public FuzzyScoreV2(int[] pattern, boolean detailedMatchIndices) {
         super();
         patternLength = pattern.length;
@@ -53,6 +81,7 @@ public class FuzzyScoreV2 implements FuzzyScore {
         for (int i = 0; i < patternLower.length; i += 1) {
             patternLower[i] = Character.toLowerCase(pattern[i]);
         }
+        patternSignature = StringNormalizer.signature(patternLower);
         adjacency_bonus = 15;
         separator_bonus = 30;
         camel_bonus = 30;
@@ -65,6 +94,8 @@ public class FuzzyScoreV2 implements FuzzyScore {
         } else {
             matchInfo = new MatchInfo();
         }
+        matchesByDepth = new int[RECURSION_LIMIT - 1][patternLength];
+        bestRecursiveMatchesByDepth = new int[RECURSION_LIMIT - 1][patternLength];
     }
 
     @Override
@@ -120,17 +151,20 @@ public class FuzzyScoreV2 implements FuzzyScore {
      */
     @Override
     public MatchInfo match(CharSequence text) {
+        int textLength = text.length();
+        int codepointCount = Character.codePointCount(text, 0, textLength);
+        if (textCodepoints.length < codepointCount) {
+            textCodepoints = new int[Math.max(codepointCount, textCodepoints.length * 2)];
+        }
         int idx = 0;
         int idxCodepoint = 0;
-        int textLength = text.length();
-        int[] codepoints = new int[Character.codePointCount(text, 0, textLength)];
         while (idx < textLength) {
             int codepoint = Character.codePointAt(text, idx);
-            codepoints[idxCodepoint] = codepoint;
+            textCodepoints[idxCodepoint] = codepoint;
             idx += Character.charCount(codepoint);
             idxCodepoint += 1;
         }
-        return match(codepoints);
+        return match(textCodepoints, 0, codepointCount);
     }
 
     /**
@@ -139,96 +173,120 @@ public class FuzzyScoreV2 implements FuzzyScore {
      */
     @Override
     public MatchInfo match(int[] str) {
-        int recursionCount = 0;
-        int recursionLimit = 10;
-        int maxMatches = Math.min(patternLength, str.length);
-        List<Integer> matches = new ArrayList<>();
+        return match(str, 0, str.length);
+    }
+
+    @Override
+    public MatchInfo match(StringNormalizer.Result text) {
+        return match(text.codePoints, 0, text.codePoints.length, text.signature);
+    }
+
+    @Override
+    public MatchInfo match(int[] text, int offset, int length, long signature) {
+        if ((signature & patternSignature) != patternSignature) {
+            matchInfo.match = false;
+            matchInfo.score = 0;
+            if (matchInfo.matchedIndices != null) {
+                matchInfo.clearMatchedIndices();
+            }
+            return matchInfo;
+        }
+        return match(text, offset, length);
+    }
 
-        MatchInfo matchInfo = matchRecursive(
+    /**
+     * @param str    string converted to codepoints
+     * @param offset index of first codepoint to use from {@code str}
+     * @param length number of codepoints to use from {@code str}
+     * @return {@link MatchInfo}, with match set to true if each character in pattern is found sequentially within text.
+     * Matched indices are only set if there is a match, they are relative to {@code offset}.
+     */
+    private MatchInfo match(int[] str, int offset, int length) {
+        strOffset = offset;
+        boolean matched = matchRecursive(
                 str,
+                length,
                 0 /* patternCurIndex */,
                 0 /* strCurrIndex */,
-                null /* srcMatches */,
-                matches,
-                maxMatches,
                 0 /* nextMatch */,
-                recursionCount,
-                recursionLimit
+                0 /* depth */
         );
-        this.matchInfo.score = matchInfo.score;
-        this.matchInfo.match = matchInfo.match;
+        this.matchInfo.match = matched;
+        this.matchInfo.score = matched ? recursiveScore : 0;
         if (this.matchInfo.matchedIndices != null) {
-            this.matchInfo.matchedIndices.clear();
-            this.matchInfo.matchedIndices.addAll(matches);
+            this.matchInfo.clearMatchedIndices();
+            if (matched) {
+                System.arraycopy(matchesByDepth[0], 0, this.matchInfo.matchedIndices, 0, patternLength);
+                this.matchInfo.matchedIndicesCount = patternLength;
+            }
         }
         return this.matchInfo;
     }
 
-    private MatchInfo matchRecursive(
+    /**
+     * Match pattern from {@code patternCurIndex} in {@code str} from {@code strCurrIndex}.
+     * Matched indices are written to {@code matchesByDepth[depth]}, the first {@code nextMatch}
+     * indices are taken from the calling depth.
+     *
+     * @return true if there is a match, score is then set to {@link #recursiveScore}
+     */
+    private boolean matchRecursive(
             int[] str,
+            int strLength,
             int patternCurIndex,
             int strCurrIndex,
-            List<Integer> srcMatches,
-            List<Integer> matches,
-            int maxMatches,
             int nextMatch,
-            int recursionCount,
-            int recursionLimit
+            int depth
     ) {
         // Return if recursion limit is reached.
-        if (++recursionCount >= recursionLimit) {
-            return MatchInfo.UNMATCHED;
+        if (depth + 1 >= RECURSION_LIMIT) {
+            return false;
         }
 
         // Return if we reached ends of strings.
-        if (patternCurIndex == patternLength || strCurrIndex == str.length) {
-            return MatchInfo.UNMATCHED;
+        if (patternCurIndex == patternLength || strCurrIndex == strLength) {
+            return false;
         }
 
+        int maxMatches = Math.min(patternLength, strLength);
+        int[] matches = matchesByDepth[depth];
+
         // Recursion params
         boolean recursiveMatch = false;
-        List<Integer> bestRecursiveMatches = new ArrayList<>();
+        int[] bestRecursiveMatches = bestRecursiveMatchesByDepth[depth];
         int bestRecursiveScore = 0;
 
         // Loop through pattern and str looking for a match.
         boolean firstMatch = true;
-        while (patternCurIndex < patternLength && strCurrIndex < str.length) {
+        while (patternCurIndex < patternLength && strCurrIndex < strLength) {
             // Match found.
-            if (patternLower[patternCurIndex] == Character.toLowerCase(str[strCurrIndex])) {
+            if (patternLower[patternCurIndex] == Character.toLowerCase(str[strOffset + strCurrIndex])) {
                 if (nextMatch >= maxMatches) {
-                    return MatchInfo.UNMATCHED;
+                    return false;
                 }
 
-                if (firstMatch && srcMatches != null) {
-                    matches.clear();
-                    matches.addAll(srcMatches);
+                if (firstMatch && depth > 0) {
+                    System.arraycopy(matchesByDepth[depth - 1], 0, matches, 0, nextMatch);
                     firstMatch = false;
                 }
 
-                List<Integer> recursiveMatches = new ArrayList<>();
-                MatchInfo recursiveResult = matchRecursive(
+                if (matchRecursive(
                         str,
+                        strLength,
                         patternCurIndex,
                         strCurrIndex + 1,
-                        matches,
-                        recursiveMatches,
-                        maxMatches,
                         nextMatch,
-                        recursionCount,
-                        recursionLimit
-                );
-
-                if (recursiveResult.match) {
+                        depth + 1
+                )) {
                     // Pick best recursive score.
-                    if (!recursiveMatch || recursiveResult.score > bestRecursiveScore) {
-                        bestRecursiveMatches.clear();
-                        bestRecursiveMatches.addAll(recursiveMatches);
-                        bestRecursiveScore = recursiveResult.score;
+                    if (!recursiveMatch || recursiveScore > bestRecursiveScore) {
+                        System.arraycopy(matchesByDepth[depth + 1], 0, bestRecursiveMatches, 0, patternLength);
+                        bestRecursiveScore = recursiveScore;
                     }
                     recursiveMatch = true;
                 }
 
-                matches.add(strCurrIndex);
+                matches[nextMatch] = strCurrIndex;
                 ++nextMatch;
                 ++patternCurIndex;
             }
@@ -242,19 +300,19 @@ public class FuzzyScoreV2 implements FuzzyScore {
             outScore = 100;
 
             // Apply leading letter penalty
-            int penalty = Math.max(max_leading_letter_penalty, leading_letter_penalty * matches.get(0));
+            int penalty = Math.max(max_leading_letter_penalty, leading_letter_penalty * matches[0]);
             outScore += penalty;
 
             //Apply unmatched penalty
-            int unmatched = str.length - nextMatch;
+            int unmatched = strLength - nextMatch;
             outScore += unmatched_letter_penalty * unmatched;
 
             // Apply ordering bonuses
-            for (int i = 0; i < matches.size(); i++) {
-                int currIdx = matches.get(i);
+            for (int i = 0; i < patternLength; i++) {
+                int currIdx = matches[i];
 
                 if (i > 0) {
-                    int prevIdx = matches.get(i - 1);
+                    int prevIdx = matches[i - 1];
                     if (currIdx == prevIdx + 1) {
                         outScore += adjacency_bonus;
                     }
@@ -263,8 +321,8 @@ public class FuzzyScoreV2 implements FuzzyScore {
                 // Check for bonuses based on neighbor character value.
                 if (currIdx > 0) {
                     // Camel case
-                    int neighbor = str[currIdx - 1];
-                    int curr = str[currIdx];
+                    int neighbor = str[strOffset + currIdx - 1];
+                    int curr = str[strOffset + currIdx];
                     if (
                             neighbor != Character.toUpperCase(neighbor) &&
                                     curr != Character.toLowerCase(curr)
@@ -284,15 +342,15 @@ public class FuzzyScoreV2 implements FuzzyScore {
         // Return best result
         if (recursiveMatch && (!matched || bestRecursiveScore > outScore)) {
             // Recursive score is better than "this"
-            matches.clear();
-            matches.addAll(bestRecursiveMatches);
-            outScore = bestRecursiveScore;
-            return new MatchInfo(true, outScore);
+            System.arraycopy(bestRecursiveMatches, 0, matches, 0, patternLength);
+            recursiveScore = bestRecursiveScore;
+            return true;
         } else if (matched) {
             // "this" score is better than recursive
-            return new MatchInfo(true, outScore);
+            recursiveScore = outScore;
+            return true;
         } else {
-            return MatchInfo.UNMATCHED;
+            return false;
         }
     }
 
@@ -3,6 +3,7 @@ package fr.neamar.kiss.utils.fuzzy;
 import android.util.Pair;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class MatchInfo {
@@ -14,7 +15,12 @@ public class MatchInfo {
      */
     public int score;
     public boolean match;
-    final List<Integer> matchedIndices;
+    /**
+     * Matched indices in text, only the first {@link #matchedIndicesCount} values are set.
+     * Null if the scorer was not asked for detailed match indices.
+     */
+    final int[] matchedIndices;
+    int matchedIndicesCount = 0;
 
     MatchInfo(boolean match, int score) {
         this();
@@ -27,25 +33,67 @@ public class MatchInfo {
     }
 
     MatchInfo(int patternLength) {
-        matchedIndices = new ArrayList<>(patternLength);
+        matchedIndices = new int[patternLength];
     }
 
-    public List<Pair<Integer, Integer>> getMatchedSequences() {
+    void clearMatchedIndices() {
+        matchedIndicesCount = 0;
+    }
+
+    void addMatchedIndex(int index) {
+        matchedIndices[matchedIndicesCount++] = index;
+    }
+
+    public int getMatchedIndicesCount() {
+        return matchedIndicesCount;
+    }
+
+    /**
+     * @return copy of matched indices in text
+     */
+    public int[] getMatchedIndices() {
         assert this.matchedIndices != null;
-        // compute pair match indices
-        List<Pair<Integer, Integer>> positions = new ArrayList<>(this.matchedIndices.size());
-        int start = this.matchedIndices.get(0);
+        return Arrays.copyOf(this.matchedIndices, this.matchedIndicesCount);
+    }
+
+    /**
+     * Compute sequences of consecutive matched indices without allocation.
+     *
+     * @param ranges buffer receiving start (inclusive) and end (exclusive) of each sequence,
+     *               must hold at least 2 * {@link #getMatchedIndicesCount()} values
+     * @return number of sequences written to {@code ranges}
+     */
+    public int getMatchedSequences(int[] ranges) {
+        assert this.matchedIndices != null;
+        if (this.matchedIndicesCount == 0) {
+            return 0;
+        }
+        int count = 0;
+        int start = this.matchedIndices[0];
         int end = start + 1;
-        for (int i = 1; i < this.matchedIndices.size(); i += 1) {
-            if (end == this.matchedIndices.get(i)) {
+        for (int i = 1; i < this.matchedIndicesCount; i += 1) {
+            if (end == this.matchedIndices[i]) {
                 end += 1;
             } else {
-                positions.add(new Pair<>(start, end));
-                start = this.matchedIndices.get(i);
+                ranges[2 * count] = start;
+                ranges[2 * count + 1] = end;
+                count += 1;
+                start = this.matchedIndices[i];
                 end = start + 1;
             }
         }
-        positions.add(new Pair<>(start, end));
+        ranges[2 * count] = start;
+        ranges[2 * count + 1] = end;
+        return count + 1;
+    }
+
+    public List<Pair<Integer, Integer>> getMatchedSequences() {
+        int[] ranges = new int[2 * this.matchedIndicesCount];
+        int count = getMatchedSequences(ranges);
+        List<Pair<Integer, Integer>> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 1) {
+            positions.add(new Pair<>(ranges[2 * i], ranges[2 * i + 1]));
+        }
         return positions;
     }
 }
@@ -0,0 +1,140 @@
+package fr.neamar.kiss;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+class ReloadSchedulerTest {
+    private final List<Runnable> posted = new ArrayList<>();
+    private final List<String> runs = new ArrayList<>();
+    private final Set<String> reloading = new HashSet<>();
+
+    private final ReloadScheduler scheduler = new ReloadScheduler((task, delayMillis) -> {
+        assertThat(delayMillis, equalTo(ReloadScheduler.WINDOW_MS));
+        posted.add(task);
+    }, new ReloadScheduler.Providers() {
+        @Override
+        public void reload(String name) {
+            runs.add("reload " + name);
+        }
+
+        @Override
+        public boolean isReloading(String name) {
+            return reloading.contains(name);
+        }
+    });
+
+    /**
+     * Run the tasks posted so far, as if the window elapsed
+     */
+    private void elapseWindow() {
+        List<Runnable> tasks = new ArrayList<>(posted);
+        posted.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+
+    private void requestUpdate(String name, String key, String update) {
+        scheduler.requestUpdate(name, key, () -> runs.add(update));
+    }
+
+    @Test
+    public void testReloadsAreCoalesced() {
+        scheduler.requestReload("app");
+        scheduler.requestReload("app");
+        scheduler.requestReload("contacts");
+        scheduler.requestReload("app");
+        assertThat(posted.size(), equalTo(2));
+        assertThat(runs, empty());
+
+        elapseWindow();
+        assertThat(runs, contains("reload app", "reload contacts"));
+        assertThat(posted, empty());
+
+        // a new window starts with the next request
+        scheduler.requestReload("app");
+        elapseWindow();
+        assertThat(runs, contains("reload app", "reload contacts", "reload app"));
+    }
+
+    @Test
+    public void testUpdatesAreMergedByKey() {
+        requestUpdate("app", "maps", "update maps");
+        requestUpdate("app", "mail", "update mail");
+        requestUpdate("app", "maps", "remove maps");
+        assertThat(posted.size(), equalTo(1));
+
+        elapseWindow();
+        assertThat(runs, contains("remove maps", "update mail"));
+    }
+
+    @Test
+    public void testReloadCoversUpdates() {
+        requestUpdate("app", "maps", "update maps");
+        scheduler.requestReload("app");
+        requestUpdate("app", "mail", "update mail");
+
+        elapseWindow();
+        assertThat(runs, contains("reload app"));
+    }
+
+    @Test
+    public void testTooManyUpdatesReload() {
+        for (int i = 0; i < ReloadScheduler.MAX_PACKAGE_UPDATES; i++) {
+            requestUpdate("app", "package" + i, "update package" + i);
+        }
+        requestUpdate("shortcuts", "package0", "update shortcuts");
+        // merged with a pending update, does not count
+        requestUpdate("app", "package0", "update package0");
+        elapseWindow();
+        assertThat(runs.size(), equalTo(ReloadScheduler.MAX_PACKAGE_UPDATES + 1));
+        assertThat(runs.contains("reload app"), equalTo(false));
+
+        runs.clear();
+        for (int i = 0; i <= ReloadScheduler.MAX_PACKAGE_UPDATES; i++) {
+            requestUpdate("app", "package" + i, "update package" + i);
+        }
+        elapseWindow();
+        assertThat(runs, equalTo(Collections.singletonList("reload app")));
+    }
+
+    @Test
+    public void testDeferredWhileReloading() {
+        reloading.add("app");
+        requestUpdate("app", "maps", "update maps");
+        elapseWindow();
+        assertThat(runs, empty());
+        assertThat(posted.size(), equalTo(1));
+
+        // requests made meanwhile are merged with the deferred ones
+        requestUpdate("app", "maps", "remove maps");
+        requestUpdate("app", "mail", "update mail");
+        assertThat(posted.size(), equalTo(1));
+        elapseWindow();
+        assertThat(runs, empty());
+
+        reloading.remove("app");
+        elapseWindow();
+        assertThat(runs, contains("remove maps", "update mail"));
+        assertThat(posted, empty());
+    }
+
+    @Test
+    public void testOtherProvidersAreNotDeferred() {
+        reloading.add("app");
+        scheduler.requestReload("app");
+        scheduler.requestReload("shortcuts");
+        elapseWindow();
+        assertThat(runs, contains("reload shortcuts"));
+    }
+}
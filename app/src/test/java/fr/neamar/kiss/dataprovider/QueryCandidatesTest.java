@@ -0,0 +1,48 @@
+package fr.neamar.kiss.dataprovider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.Pojo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class QueryCandidatesTest {
+
+    private static int[] query(String query) {
+        return StringNormalizer.normalizeWithResult(query, false).codePoints;
+    }
+
+    @Test
+    public void testExtendingQueryReusesMatches() {
+        QueryCandidates<Pojo> candidates = new QueryCandidates<>();
+        List<Pojo> matches = Collections.singletonList(new Pojo("test://spotify") {
+        });
+        candidates.put(query("spo"), 1, matches);
+
+        assertThat(candidates.get(query("spo"), 1), sameInstance(matches));
+        assertThat(candidates.get(query("Spot"), 1), sameInstance(matches));
+        assertThat(candidates.get(query("spoti"), 1), sameInstance(matches));
+    }
+
+    @Test
+    public void testOtherQueryNeedsFullScan() {
+        QueryCandidates<Pojo> candidates = new QueryCandidates<>();
+        candidates.put(query("spo"), 1, Collections.emptyList());
+
+        // deletion
+        assertThat(candidates.get(query("sp"), 1), nullValue());
+        // different query
+        assertThat(candidates.get(query("sxo"), 1), nullValue());
+        // data changed
+        assertThat(candidates.get(query("spot"), 2), nullValue());
+
+        candidates.clear();
+        assertThat(candidates.get(query("spot"), 1), nullValue());
+    }
+}
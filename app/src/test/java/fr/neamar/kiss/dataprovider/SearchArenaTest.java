@@ -0,0 +1,231 @@
+package fr.neamar.kiss.dataprovider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.AppPojo;
+import fr.neamar.kiss.pojo.ContactsPojo;
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.testing.SyntheticCorpus;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScoreV1;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScoreV2;
+import fr.neamar.kiss.utils.fuzzy.MatchInfo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class SearchArenaTest {
+    /**
+     * name, nickname and phone: nicknames are mostly missing
+     */
+    private static final SearchableFields<ContactsPojo> CONTACT_FIELDS = new SearchableFields<ContactsPojo>() {
+        @Override
+        public int count() {
+            return 3;
+        }
+
+        @Override
+        public StringNormalizer.Result get(ContactsPojo pojo, int field) {
+            switch (field) {
+                case 0:
+                    return pojo.normalizedName;
+                case 1:
+                    return pojo.normalizedNickname;
+                default:
+                    return pojo.normalizedPhone;
+            }
+        }
+    };
+
+    @Test
+    public void testSameMatchesAsPojos() {
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        List<AppPojo> apps = corpus.apps(300, 2);
+        SyntheticCorpus.applyTags(apps, corpus.tags(apps, 30));
+        List<ContactsPojo> contacts = corpus.contacts(1000);
+
+        int matches = assertSameMatches(apps, SearchableFields.nameAndTags());
+        matches += assertSameMatches(contacts, CONTACT_FIELDS);
+
+        // make sure that corpus isn't trivial
+        assertThat(matches, greaterThan(1000));
+    }
+
+    @Test
+    public void testSelectKeepsAllMatches() {
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        List<AppPojo> apps = corpus.apps(300, 2);
+        SyntheticCorpus.applyTags(apps, corpus.tags(apps, 30));
+        List<ContactsPojo> contacts = corpus.contacts(1000);
+
+        assertSelectKeepsAllMatches(apps, SearchableFields.nameAndTags());
+        assertSelectKeepsAllMatches(contacts, CONTACT_FIELDS);
+    }
+
+    @Test
+    public void testSelectChosung() {
+        List<AppPojo> apps = new SyntheticCorpus(42).apps(300, 0);
+        AppPojo kakao = apps.get(100);
+        kakao.setName("카카오");
+        AppPojo kakaoT = apps.get(200);
+        kakaoT.setName("카카오 T");
+        apps.get(150).setName("콩콩 이야기");
+        SearchArena<AppPojo> arena = SearchArena.build(apps, SearchableFields.nameAndTags(), 1);
+
+        int[] query = StringNormalizer.normalizeWithResult("ㅋㅋㅇ", false).codePoints;
+        SearchCandidates<AppPojo> selected = arena.selectChosung(query);
+        Set<AppPojo> selectedPojos = selectedPojos(selected);
+        assertThat(selectedPojos.contains(kakao), equalTo(true));
+        assertThat(selectedPojos.contains(kakaoT), equalTo(true));
+        FuzzyScore fuzzyScore = new FuzzyScoreV1(query, false);
+        for (int i = 0; i < selected.size(); i++) {
+            // scattered in the full jamo of the name, exact in its chosung
+            int nameScore = selected.match(fuzzyScore, i, SearchableFields.NAME).score;
+            MatchInfo chosungMatch = selected.match(fuzzyScore, i, SearchableFields.CHOSUNG);
+            assertThat(chosungMatch.match, equalTo(true));
+            assertThat(chosungMatch.score, greaterThan(nameScore));
+        }
+
+        // "콩콩 이야기" only has these consonants with a space in between
+        assertThat(selectedPojos(arena.selectChosung(StringNormalizer.normalizeWithResult("ㅋㅋㅇㅇ", false).codePoints)).contains(apps.get(150)), equalTo(false));
+        assertThat(selectedPojos(arena.selectChosung(StringNormalizer.normalizeWithResult("ㅇㅇㄱ", false).codePoints)).contains(apps.get(150)), equalTo(true));
+
+        // other queries go through the fuzzy scorer
+        assertThat(arena.selectChosung(StringNormalizer.normalizeWithResult("ㅋ", false).codePoints), nullValue());
+        assertThat(arena.selectChosung(StringNormalizer.normalizeWithResult("ㅋㅋ오", false).codePoints), nullValue());
+        assertThat(arena.selectChosung(StringNormalizer.normalizeWithResult("kk", false).codePoints), nullValue());
+    }
+
+    @Test
+    public void testSelectPrefixes() {
+        List<AppPojo> apps = new SyntheticCorpus(42).apps(300, 0);
+        AppPojo maps = apps.get(100);
+        maps.setName("Google Maps");
+        AppPojo studio = apps.get(200);
+        studio.setName("YouTube Studio");
+
+        assertThat(SearchArena.build(apps, SearchableFields.nameAndTags(), 1).selectPrefixes(codePoints("ma")), nullValue());
+
+        SearchArena<AppPojo> arena = SearchArena.build(apps, SearchableFields.nameAndTags(), 1, true);
+        // initials
+        assertPrefixMatch(arena, "gm", maps);
+        assertPrefixMatch(arena, "GM", maps);
+        assertPrefixMatch(arena, "ys", studio);
+        assertPrefixMatch(arena, "yts", studio);
+        assertPrefixMatch(arena, "yt", studio);
+        // words
+        assertPrefixMatch(arena, "ma", maps);
+        assertPrefixMatch(arena, "tube", studio);
+        assertPrefixMatch(arena, "stu", studio);
+    }
+
+    private static void assertPrefixMatch(SearchArena<AppPojo> arena, String query, AppPojo expected) {
+        SearchCandidates<AppPojo> selected = arena.selectPrefixes(codePoints(query));
+        assertThat(selectedPojos(selected).contains(expected), equalTo(true));
+        // every pojo found this way matches the query, so it can be scored and displayed first
+        FuzzyScore fuzzyScore = new FuzzyScoreV2(codePoints(query), false);
+        for (int i = 0; i < selected.size(); i++) {
+            MatchInfo nameMatch = selected.match(fuzzyScore, i, SearchableFields.NAME);
+            MatchInfo tagsMatch = selected.match(fuzzyScore, i, SearchableFields.TAGS);
+            assertThat(nameMatch.match || (tagsMatch != null && tagsMatch.match), equalTo(true));
+        }
+    }
+
+    private static int[] codePoints(String query) {
+        return StringNormalizer.normalizeWithResult(query, false).codePoints;
+    }
+
+    private static <T extends Pojo> Set<T> selectedPojos(SearchCandidates<T> selected) {
+        Set<T> selectedPojos = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < selected.size(); i++) {
+            selectedPojos.add(selected.getPojo(i));
+        }
+        // every pojo at most once
+        assertThat(selectedPojos.size(), equalTo(selected.size()));
+        return selectedPojos;
+    }
+
+    private static <T extends Pojo> void assertSelectKeepsAllMatches(List<T> pojos, SearchableFields<T> fields) {
+        SearchArena<T> arena = SearchArena.build(pojos, fields, 3);
+
+        Random random = new Random(1234);
+        for (int q = 0; q < 50; q++) {
+            // subsequence of a name, with random case
+            int[] name = pojos.get(random.nextInt(pojos.size())).normalizedName.codePoints;
+            int[] query = new int[1 + random.nextInt(5)];
+            for (int i = 0; i < query.length; i++) {
+                int codePoint = name[random.nextInt(name.length)];
+                query[i] = random.nextBoolean() ? Character.toUpperCase(codePoint) : codePoint;
+            }
+            FuzzyScore fuzzyScore = new FuzzyScoreV2(query, false);
+
+            SearchCandidates<T> selected = arena.select(query);
+            Set<T> selectedPojos = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < selected.size(); i++) {
+                selectedPojos.add(selected.getPojo(i));
+            }
+            if (query.length < SearchArena.MIN_INDEXED_QUERY_LENGTH) {
+                assertThat(selected.size(), equalTo(pojos.size()));
+            }
+
+            for (int i = 0; i < arena.size(); i++) {
+                for (int field = 0; field < fields.count(); field++) {
+                    MatchInfo matchInfo = arena.match(fuzzyScore, i, field);
+                    if (matchInfo != null && matchInfo.match) {
+                        assertThat(selectedPojos.contains(arena.getPojo(i)), equalTo(true));
+                    }
+                }
+            }
+        }
+    }
+
+    private static <T extends Pojo> int assertSameMatches(List<T> pojos, SearchableFields<T> fields) {
+        SearchArena<T> arena = SearchArena.build(pojos, fields, 3);
+        SearchCandidates<T> list = SearchCandidates.of(pojos, fields);
+        assertThat(arena.size(), equalTo(pojos.size()));
+
+        Random random = new Random(1234);
+        int matches = 0;
+        for (int q = 0; q < 20; q++) {
+            T source = pojos.get(random.nextInt(pojos.size()));
+            int[] name = source.normalizedName.codePoints;
+            int start = random.nextInt(name.length);
+            int[] query = Arrays.copyOfRange(name, start, Math.min(name.length, start + 1 + random.nextInt(3)));
+            for (FuzzyScore fuzzyScore : new FuzzyScore[]{new FuzzyScoreV1(query, true), new FuzzyScoreV2(query, true)}) {
+                for (int i = 0; i < pojos.size(); i++) {
+                    assertThat(arena.getPojo(i), sameInstance(pojos.get(i)));
+                    for (int field = 0; field < fields.count(); field++) {
+                        MatchInfo expected = list.match(fuzzyScore, i, field);
+                        if (expected == null) {
+                            assertThat(arena.match(fuzzyScore, i, field), nullValue());
+                            continue;
+                        }
+                        boolean match = expected.match;
+                        int score = expected.score;
+                        int[] indices = expected.getMatchedIndices();
+
+                        MatchInfo actual = arena.match(fuzzyScore, i, field);
+                        assertThat(actual.match, equalTo(match));
+                        if (match) {
+                            assertThat(actual.score, equalTo(score));
+                            assertThat(actual.getMatchedIndices(), equalTo(indices));
+                            matches++;
+                        }
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+}
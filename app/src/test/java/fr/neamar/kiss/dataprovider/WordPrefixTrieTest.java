@@ -0,0 +1,129 @@
+package fr.neamar.kiss.dataprovider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import fr.neamar.kiss.testing.SyntheticNames;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+class WordPrefixTrieTest {
+    @Test
+    public void testWordsAndCamelCaseWords() {
+        WordPrefixTrie trie = build(2, "YouTube Studio", null, "Google Maps", "maps navigation", "Gmail", "", "Mapy.cz", null);
+
+        assertThat(select(trie, "st"), equalTo(new int[]{0}));
+        assertThat(select(trie, "TUBE"), equalTo(new int[]{0}));
+        assertThat(select(trie, "you"), equalTo(new int[]{0}));
+        assertThat(select(trie, "ma"), equalTo(new int[]{1, 3}));
+        assertThat(select(trie, "map"), equalTo(new int[]{1, 3}));
+        assertThat(select(trie, "maps"), equalTo(new int[]{1}));
+        assertThat(select(trie, "mapsx"), equalTo(new int[0]));
+        assertThat(select(trie, "ps"), equalTo(new int[0]));
+        assertThat(select(trie, "g"), equalTo(new int[0]));
+        assertThat(select(trie, "mapy.cz"), equalTo(new int[]{3}));
+    }
+
+    @Test
+    public void testSameAsLinearSearch() {
+        Random random = new Random(42);
+        int pojoCount = 2000;
+        String[] texts = new String[pojoCount * 2];
+        List<List<String>> words = new ArrayList<>();
+        for (int i = 0; i < pojoCount; i++) {
+            texts[2 * i] = SyntheticNames.contactName(SyntheticNames.Script.MIXED, random);
+            texts[2 * i + 1] = random.nextBoolean() ? SyntheticNames.tags(random) : null;
+            List<String> pojoWords = new ArrayList<>(words(texts[2 * i]));
+            pojoWords.addAll(words(texts[2 * i + 1]));
+            words.add(pojoWords);
+        }
+        WordPrefixTrie trie = build(2, texts);
+
+        int found = 0;
+        for (int q = 0; q < 500; q++) {
+            String text = texts[2 * random.nextInt(pojoCount)];
+            int start = random.nextInt(text.length());
+            String query = lowerCase(text.substring(start, Math.min(text.length(), start + 2 + random.nextInt(4))));
+            if (query.codePointCount(0, query.length()) < WordPrefixTrie.MIN_LENGTH) {
+                assertThat(select(trie, query).length, equalTo(0));
+                continue;
+            }
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < pojoCount; i++) {
+                for (String word : words.get(i)) {
+                    if (word.startsWith(query)) {
+                        expected.add(i);
+                        break;
+                    }
+                }
+            }
+            int[] actual = select(trie, query);
+            assertThat(query, Arrays.toString(actual), equalTo(expected.toString()));
+            found += actual.length;
+        }
+        // make sure that queries aren't trivial
+        assertThat(found, greaterThan(500));
+    }
+
+    /**
+     * @return lowercase words of text, starting after a whitespace or at a camel case boundary
+     */
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int[] codePoints = text.codePoints().toArray();
+        for (int i = 0; i < codePoints.length; i++) {
+            boolean wordStart = !Character.isWhitespace(codePoints[i]) && (i == 0 || Character.isWhitespace(codePoints[i - 1])
+                    || (Character.isLowerCase(codePoints[i - 1]) && Character.isUpperCase(codePoints[i])));
+            if (wordStart) {
+                int end = i;
+                while (end < codePoints.length && !Character.isWhitespace(codePoints[end])) {
+                    end++;
+                }
+                words.add(lowerCase(new String(codePoints, i, end - i)));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Lowercase code point by code point, like the trie, unlike {@link String#toLowerCase()}
+     */
+    private static String lowerCase(String text) {
+        return new String(text.codePoints().map(Character::toLowerCase).toArray(), 0, text.codePointCount(0, text.length()));
+    }
+
+    private static int[] select(WordPrefixTrie trie, String query) {
+        return trie.select(query.codePoints().toArray());
+    }
+
+    /**
+     * @param texts fields of each pojo one after the other, null for missing fields
+     */
+    private static WordPrefixTrie build(int fieldCount, String... texts) {
+        int[] offsets = new int[texts.length];
+        int[] lengths = new int[texts.length];
+        int[] codePoints = new int[0];
+        for (int slot = 0; slot < texts.length; slot++) {
+            if (texts[slot] == null) {
+                lengths[slot] = -1;
+                continue;
+            }
+            int[] text = texts[slot].codePoints().toArray();
+            offsets[slot] = codePoints.length;
+            lengths[slot] = text.length;
+            codePoints = Arrays.copyOf(codePoints, codePoints.length + text.length);
+            System.arraycopy(text, 0, codePoints, offsets[slot], text.length);
+        }
+        return WordPrefixTrie.build(codePoints, offsets, lengths, fieldCount);
+    }
+}
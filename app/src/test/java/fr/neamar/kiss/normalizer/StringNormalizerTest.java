@@ -0,0 +1,59 @@
+package fr.neamar.kiss.normalizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import fr.neamar.kiss.testing.SyntheticNames;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class StringNormalizerTest {
+    @Test
+    public void testSameAsReferenceForEveryCodePoint() {
+        for (int codePoint = 0; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+            String text = new String(Character.toChars(codePoint));
+            assertSameAsReference(text, false);
+            assertSameAsReference(text, true);
+        }
+    }
+
+    @Test
+    public void testSameAsReferenceForNames() {
+        Random random = new Random(42);
+        for (SyntheticNames.Script script : SyntheticNames.Script.values()) {
+            List<String> names = SyntheticNames.contactNames(500, script, random);
+            for (String name : names) {
+                assertSameAsReference(name, false);
+                assertSameAsReference(name, true);
+            }
+        }
+        // mixed decompositions, ligatures, Hangul, dashes, surrogate pairs and a lone surrogate
+        assertSameAsReference("Ⅻ ﬃ ﷺ 각 한글 Crème-brûlée — ﾐｶﾝ 𝔘𝔫𝔦 \ud800 😀", false);
+        assertSameAsReference("Ⅻ ﬃ ﷺ 각 한글 Crème-brûlée — ﾐｶﾝ 𝔘𝔫𝔦 \ud800 😀", true);
+    }
+
+    @Test
+    public void testMapPositions() {
+        StringNormalizer.Result plain = StringNormalizer.normalizeWithResult("Jean Luc", true);
+        assertThat(plain.mapPosition(4), equalTo(4));
+        assertThat(plain.mapPosition(8), equalTo(8));
+
+        StringNormalizer.Result dashed = StringNormalizer.normalizeWithResult("Jean-Luc", true);
+        assertThat(dashed.toString(), equalTo("jeanluc"));
+        assertThat(dashed.mapPosition(3), equalTo(3));
+        assertThat(dashed.mapPosition(4), equalTo(5));
+        assertThat(dashed.mapPosition(7), equalTo(8));
+    }
+
+    private static void assertSameAsReference(String text, boolean makeLowercase) {
+        StringNormalizer.Result expected = StringNormalizerReference.normalizeWithResult(text, makeLowercase);
+        StringNormalizer.Result actual = StringNormalizer.normalizeWithResult(text, makeLowercase);
+        assertThat(text, actual.codePoints, equalTo(expected.codePoints));
+        for (int i = 0; i <= expected.length(); i++) {
+            assertThat(text, actual.mapPosition(i), equalTo(expected.mapPosition(i)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package fr.neamar.kiss.searcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.ScoredPojo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class SearchResultCacheTest {
+
+    @Test
+    public void testHitUntilInvalidated() {
+        SearchResultCache cache = new SearchResultCache();
+        List<ScoredPojo> results = results("app://maps", "app://mail");
+
+        assertThat(cache.get("ma"), nullValue());
+        cache.put("ma", cache.getEpoch(), results);
+        assertThat(cache.get("ma"), sameInstance(results));
+        assertThat(cache.get("m"), nullValue());
+        assertThat(cache.getHitCount(), equalTo(1));
+        assertThat(cache.getMissCount(), equalTo(2));
+
+        cache.invalidate();
+        assertThat(cache.get("ma"), nullValue());
+    }
+
+    @Test
+    public void testResultsOfStaleSearchAreDropped() {
+        SearchResultCache cache = new SearchResultCache();
+        long epoch = cache.getEpoch();
+        // data changed while the search was running
+        cache.invalidate();
+        cache.put("ma", epoch, results("app://maps"));
+        assertThat(cache.get("ma"), nullValue());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        SearchResultCache cache = new SearchResultCache();
+        for (int i = 0; i < SearchResultCache.MAX_ENTRIES; i++) {
+            cache.put("query" + i, cache.getEpoch(), Collections.emptyList());
+        }
+        cache.get("query0");
+        cache.put("another", cache.getEpoch(), Collections.emptyList());
+
+        assertThat(cache.get("query0"), equalTo(Collections.emptyList()));
+        assertThat(cache.get("query1"), nullValue());
+        assertThat(cache.get("another"), equalTo(Collections.emptyList()));
+    }
+
+    private static List<ScoredPojo> results(String... ids) {
+        List<ScoredPojo> results = new ArrayList<>();
+        for (String id : ids) {
+            results.add(new ScoredPojo(new Pojo(id) {
+            }, 10));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,64 @@
+package fr.neamar.kiss.searcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.ScoredPojo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class SearcherTest {
+
+    @Test
+    public void testSameResults() {
+        assertThat(Searcher.sameResults(results("app://maps", "app://mail"), results("app://maps", "app://mail")), equalTo(true));
+        assertThat(Searcher.sameResults(results("app://maps", "app://mail"), results("app://mail", "app://maps")), equalTo(false));
+        assertThat(Searcher.sameResults(results("app://maps"), results("app://maps", "app://mail")), equalTo(false));
+
+        List<ScoredPojo> rescored = results("app://maps");
+        rescored.set(0, rescored.get(0).withRelevance(42));
+        assertThat(Searcher.sameResults(results("app://maps"), rescored), equalTo(false));
+    }
+
+    @Test
+    public void testMergeLateHits() {
+        List<ScoredPojo> displayed = results("app://mail", "app://maps");
+        // a contact found later ranks between displayed hits
+        List<ScoredPojo> ranked = results("app://music", "app://mail", "contact://mary", "app://maps");
+
+        assertThat(ids(Searcher.mergeLateHits(displayed, ranked)),
+                equalTo(ids(results("app://music", "contact://mary", "app://mail", "app://maps"))));
+    }
+
+    @Test
+    public void testMergeLateHitsKeepsDisplayedHits() {
+        List<ScoredPojo> displayed = results("app://mail", "app://maps");
+        // the lowest displayed hit was pushed out by better hits of a slower provider
+        List<ScoredPojo> ranked = results("app://maps", "contact://mary", "contact://max");
+
+        assertThat(ids(Searcher.mergeLateHits(displayed, ranked)),
+                equalTo(ids(results("contact://max", "app://mail", "app://maps"))));
+        assertThat(Searcher.sameResults(Searcher.mergeLateHits(displayed, displayed), displayed), equalTo(true));
+    }
+
+    private static List<String> ids(List<ScoredPojo> hits) {
+        List<String> ids = new ArrayList<>();
+        for (ScoredPojo hit : hits) {
+            ids.add(hit.pojo.id);
+        }
+        return ids;
+    }
+
+    private static List<ScoredPojo> results(String... ids) {
+        List<ScoredPojo> results = new ArrayList<>();
+        for (String id : ids) {
+            results.add(new ScoredPojo(new Pojo(id) {
+            }, 10));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,84 @@
+package fr.neamar.kiss.searcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+class TopKCollectorTest {
+
+    @Test
+    public void testKeepsBestElementsInAscendingOrder() {
+        Random random = new Random(42);
+        List<Integer> values = new ArrayList<>();
+        TopKCollector<Integer> collector = new TopKCollector<>(50, Comparator.naturalOrder());
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(1000) - 500;
+            values.add(value);
+            collector.offer(value);
+        }
+
+        Collections.sort(values);
+        assertThat(collector.drainAscending(), equalTo(values.subList(values.size() - 50, values.size())));
+        assertThat(collector.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testThreshold() {
+        TopKCollector<Integer> collector = new TopKCollector<>(3, Comparator.naturalOrder());
+        collector.offer(5);
+        collector.offer(1);
+        assertThat(collector.peekThreshold(), nullValue());
+
+        collector.offer(3);
+        assertThat(collector.peekThreshold(), equalTo(1));
+
+        // below and equal to threshold are rejected
+        assertThat(collector.offer(0), equalTo(false));
+        assertThat(collector.offer(1), equalTo(false));
+        assertThat(collector.offer(4), equalTo(true));
+        assertThat(collector.peekThreshold(), equalTo(3));
+        assertThat(collector.drainAscending(), equalTo(List.of(3, 4, 5)));
+    }
+
+    @Test
+    public void testSnapshotKeepsElements() {
+        TopKCollector<Integer> collector = new TopKCollector<>(3, Comparator.naturalOrder());
+        collector.offer(2);
+        collector.offer(7);
+        collector.offer(5);
+        assertThat(collector.snapshotAscending(), equalTo(List.of(2, 5, 7)));
+
+        collector.offer(6);
+        assertThat(collector.snapshotAscending(), equalTo(List.of(5, 6, 7)));
+        assertThat(collector.drainAscending(), equalTo(List.of(5, 6, 7)));
+    }
+
+    @Test
+    public void testUnbounded() {
+        TopKCollector<Integer> collector = new TopKCollector<>(Integer.MAX_VALUE, Comparator.reverseOrder());
+        for (int i = 0; i < 200; i++) {
+            collector.offer(i);
+        }
+        assertThat(collector.peekThreshold(), nullValue());
+        List<Integer> drained = collector.drainAscending();
+        assertThat(drained.size(), equalTo(200));
+        assertThat(drained.get(0), equalTo(199));
+        assertThat(drained.get(199), equalTo(0));
+    }
+
+    @Test
+    public void testEmpty() {
+        TopKCollector<Integer> collector = new TopKCollector<>(0, Comparator.naturalOrder());
+        assertThat(collector.offer(1), equalTo(false));
+        assertThat(collector.drainAscending(), empty());
+    }
+}
@@ -0,0 +1,283 @@
+package fr.neamar.kiss.testing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import fr.neamar.kiss.db.ShortcutRecord;
+import fr.neamar.kiss.db.ValuedHistoryRecord;
+import fr.neamar.kiss.pojo.AppPojo;
+import fr.neamar.kiss.pojo.ContactsPojo;
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.PojoWithTags;
+import fr.neamar.kiss.pojo.ShortcutPojo;
+import fr.neamar.kiss.utils.UserHandle;
+
+/**
+ * Deterministic generator of launcher data at the scale of managed devices: apps of several
+ * work profiles, big address books, Oreo shortcuts, tags and history rows.
+ * <p>
+ * Pojos are built the same way the loaders build them (same ids, names, tags), so they can be
+ * given to providers and searchers in JVM unit tests. Each kind of data is generated from its
+ * own random stream, e.g. contacts are the same whether apps were generated before or not.
+ * <p>
+ * There is no {@code android.os.UserHandle} on the JVM: apps of work profiles get the ids of a
+ * profile user, but their {@link UserHandle} and component names are the ones of the current user.
+ */
+public final class SyntheticCorpus {
+    public static final String APP_SCHEME = "app://";
+    public static final String CONTACT_SCHEME = "contact://";
+
+    private static final int STREAM_APPS = 1;
+    private static final int STREAM_CONTACTS = 2;
+    private static final int STREAM_SHORTCUTS = 3;
+    private static final int STREAM_TAGS = 4;
+    private static final int STREAM_HISTORY = 5;
+
+    /**
+     * History older than this is removed by the launcher
+     */
+    private static final long HISTORY_WINDOW_MILLIS = TimeUnit.DAYS.toMillis(90);
+
+    private final long seed;
+
+    public SyntheticCorpus(long seed) {
+        this.seed = seed;
+    }
+
+    private Random random(int stream) {
+        return new Random(seed * 31 + stream);
+    }
+
+    /**
+     * @param count        number of launcher activities of the main profile
+     * @param profileCount number of profiles (1 for main profile only), each other profile
+     *                     gets a copy of about a third of the apps
+     * @return apps of all profiles
+     */
+    public List<AppPojo> apps(int count, int profileCount) {
+        Random random = random(STREAM_APPS);
+        List<AppPojo> apps = new ArrayList<>(count);
+        UserHandle user = new UserHandle();
+        String packageName = null;
+        for (int i = 0; i < count; i++) {
+            String label = SyntheticNames.appLabel(random);
+            String activityName;
+            // some packages have more than one launcher activity
+            if (packageName != null && random.nextInt(10) == 0) {
+                activityName = packageName + ".Secondary" + i + "Activity";
+            } else {
+                packageName = SyntheticNames.packageName(label, i, random);
+                activityName = packageName + ".MainActivity";
+            }
+            apps.add(createApp(APP_SCHEME + packageName + "/" + activityName, packageName, activityName, label, user, random));
+        }
+
+        List<AppPojo> allApps = new ArrayList<>(apps);
+        for (int profile = 1; profile < profileCount; profile++) {
+            // serial numbers of work profiles start at 10 on most devices
+            long serial = 9 + profile;
+            UserHandle profileUser = new UserHandle(serial, null);
+            for (AppPojo app : apps) {
+                if (random.nextInt(3) == 0) {
+                    String id = app.id + "/" + serial;
+                    allApps.add(createApp(id, app.packageName, app.activityName, app.getName(), profileUser, random));
+                }
+            }
+        }
+        return allApps;
+    }
+
+    private static AppPojo createApp(String id, String packageName, String activityName, String label, UserHandle user, Random random) {
+        boolean excluded = random.nextInt(50) == 0;
+        boolean excludedFromHistory = random.nextInt(50) == 0;
+        boolean excludedShortcuts = random.nextInt(20) == 0;
+        boolean disabled = random.nextInt(100) == 0;
+        AppPojo app = new AppPojo(id, packageName, activityName, user, excluded, excludedFromHistory, excludedShortcuts, disabled);
+        app.setName(label);
+        return app;
+    }
+
+    /**
+     * @param count number of contacts, one pojo is created per phone number so there are
+     *              more pojos than contacts
+     * @return contacts with names of all scripts, see {@link SyntheticNames.Script#MIXED}
+     */
+    public List<ContactsPojo> contacts(int count) {
+        Random random = random(STREAM_CONTACTS);
+        List<ContactsPojo> contacts = new ArrayList<>(count + count / 4);
+        for (int i = 0; i < count; i++) {
+            long contactId = 1000L + i;
+            String lookupKey = "0r" + contactId + "-" + Long.toHexString(random.nextLong());
+            String name = SyntheticNames.contactName(SyntheticNames.Script.MIXED, random);
+            String nickname = random.nextInt(10) == 0 ? SyntheticNames.nickname(random) : null;
+            boolean starred = random.nextInt(20) == 0;
+
+            int draw = random.nextInt(100);
+            int phoneCount = draw < 80 ? 1 : draw < 97 ? 2 : 3;
+            for (int p = 0; p < phoneCount; p++) {
+                String phone = SyntheticNames.phoneNumber(random);
+                ContactsPojo contact = new ContactsPojo(CONTACT_SCHEME + contactId + "/" + phone, lookupKey, contactId, null, p == 0, starred);
+                contact.setName(name);
+                contact.setPhone(phone, false);
+                contact.setNickname(nickname);
+                contacts.add(contact);
+            }
+        }
+        return contacts;
+    }
+
+    /**
+     * @param apps  apps publishing the shortcuts
+     * @param count number of shortcuts
+     * @return Oreo shortcuts, named like {@code ShortcutUtil#createShortcutRecord} names them
+     */
+    public List<ShortcutPojo> shortcuts(List<AppPojo> apps, int count) {
+        Random random = random(STREAM_SHORTCUTS);
+        List<ShortcutPojo> shortcuts = new ArrayList<>(count);
+        Set<String> ids = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            AppPojo app = apps.get(random.nextInt(apps.size()));
+
+            ShortcutRecord record = new ShortcutRecord();
+            record.packageName = app.packageName;
+            record.intentUri = ShortcutPojo.OREO_PREFIX + "shortcut-" + i;
+            record.name = app.getName() + ": " + SyntheticNames.shortcutLabel(random);
+            // ids are derived from names, keep them unique
+            for (int n = 2; !ids.add(record.name.toLowerCase(Locale.ROOT)); n++) {
+                record.name = app.getName() + ": " + SyntheticNames.shortcutLabel(random) + " " + n;
+            }
+
+            boolean pinned = random.nextInt(5) == 0;
+            boolean dynamic = !pinned && random.nextBoolean();
+            ShortcutPojo shortcut = new ShortcutPojo(record, app.getComponentName(), pinned, dynamic, app.isDisabled());
+            shortcut.setName(record.name);
+            shortcuts.add(shortcut);
+        }
+        return shortcuts;
+    }
+
+    /**
+     * @param pojos         pojos that can be tagged
+     * @param percentTagged  percentage of tagged pojos
+     * @return tags by pojo id, as stored by the tags handler
+     */
+    public Map<String, String> tags(List<? extends Pojo> pojos, int percentTagged) {
+        Random random = random(STREAM_TAGS);
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (Pojo pojo : pojos) {
+            if (random.nextInt(100) < percentTagged) {
+                tags.put(pojo.id, SyntheticNames.tags(random));
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Sets tags the way loaders do, pojos without tags get an empty string.
+     */
+    public static void applyTags(List<? extends PojoWithTags> pojos, Map<String, String> tags) {
+        for (PojoWithTags pojo : pojos) {
+            String pojoTags = tags.get(pojo.id);
+            pojo.setTags(pojoTags != null ? pojoTags : "");
+        }
+    }
+
+    /**
+     * Rows of the history table, from the oldest to the most recent one.
+     * Some records are used far more often than others, recent days have more rows than
+     * older ones and the query is the start of the record name or empty for launches
+     * from favorites or history.
+     *
+     * @param pojos    launched records
+     * @param rowCount number of rows
+     * @param now      timestamp of the most recent possible row
+     */
+    public List<HistoryRow> history(List<? extends Pojo> pojos, int rowCount, long now) {
+        Random random = random(STREAM_HISTORY);
+        List<Pojo> byPopularity = new ArrayList<>(pojos);
+        Collections.shuffle(byPopularity, random);
+
+        List<HistoryRow> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            // power law popularity: first records of the shuffled list are launched most
+            Pojo pojo = byPopularity.get((int) (byPopularity.size() * Math.pow(random.nextDouble(), 3)));
+            long timeStamp = now - (long) (HISTORY_WINDOW_MILLIS * Math.pow(random.nextDouble(), 2));
+            rows.add(new HistoryRow(query(pojo, random), pojo.id, timeStamp));
+        }
+        rows.sort(Comparator.comparingLong(row -> row.timeStamp));
+        return rows;
+    }
+
+    private static String query(Pojo pojo, Random random) {
+        if (pojo.normalizedName == null || random.nextInt(5) < 2) {
+            return "";
+        }
+        int[] codePoints = pojo.normalizedName.codePoints;
+        int length = Math.min(codePoints.length, 1 + random.nextInt(4));
+        return new String(codePoints, 0, length).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return most used records, as returned by {@code DBHelper} for {@code HistoryMode.FREQUENCY}
+     */
+    public static List<ValuedHistoryRecord> frequency(List<HistoryRow> rows, int limit) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (HistoryRow row : rows) {
+            counts.merge(row.record, 1, Integer::sum);
+        }
+        List<ValuedHistoryRecord> records = new ArrayList<>(counts.size());
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            records.add(valuedHistoryRecord(count.getKey(), count.getValue()));
+        }
+        // ties are ordered by record to stay deterministic
+        records.sort(Comparator.<ValuedHistoryRecord>comparingInt(record -> -record.value).thenComparing(record -> record.record));
+        return records.subList(0, Math.min(limit, records.size()));
+    }
+
+    /**
+     * @return last used records, as returned by {@code DBHelper} for {@code HistoryMode.RECENCY}
+     */
+    public static List<ValuedHistoryRecord> recency(List<HistoryRow> rows, int limit) {
+        Set<String> seen = new HashSet<>();
+        List<ValuedHistoryRecord> records = new ArrayList<>();
+        for (int i = rows.size() - 1; i >= 0 && records.size() < limit; i--) {
+            String record = rows.get(i).record;
+            if (seen.add(record)) {
+                records.add(valuedHistoryRecord(record, 1));
+            }
+        }
+        return records;
+    }
+
+    private static ValuedHistoryRecord valuedHistoryRecord(String record, int value) {
+        ValuedHistoryRecord valuedHistoryRecord = new ValuedHistoryRecord();
+        valuedHistoryRecord.record = record;
+        valuedHistoryRecord.value = value;
+        return valuedHistoryRecord;
+    }
+
+    /**
+     * One row of the history table of {@code DBHelper}.
+     */
+    public static final class HistoryRow {
+        public final String query;
+        public final String record;
+        public final long timeStamp;
+
+        HistoryRow(String query, String record, long timeStamp) {
+            this.query = query;
+            this.record = record;
+            this.timeStamp = timeStamp;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package fr.neamar.kiss.testing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import fr.neamar.kiss.db.ValuedHistoryRecord;
+import fr.neamar.kiss.pojo.AppPojo;
+import fr.neamar.kiss.pojo.ContactsPojo;
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.ShortcutPojo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+class SyntheticCorpusTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    public void testSameSeedGivesSameCorpus() {
+        SyntheticCorpus corpus = new SyntheticCorpus(7);
+        SyntheticCorpus other = new SyntheticCorpus(7);
+
+        // generating other data first must not change the result
+        List<ContactsPojo> otherContacts = other.contacts(500);
+        List<AppPojo> apps = corpus.apps(300, 2);
+        List<AppPojo> otherApps = other.apps(300, 2);
+
+        assertThat(names(apps), equalTo(names(otherApps)));
+        assertThat(ids(apps), equalTo(ids(otherApps)));
+        assertThat(ids(corpus.contacts(500)), equalTo(ids(otherContacts)));
+        assertThat(ids(corpus.shortcuts(apps, 200)), equalTo(ids(other.shortcuts(otherApps, 200))));
+        assertThat(corpus.tags(apps, 30), equalTo(other.tags(otherApps, 30)));
+
+        List<SyntheticCorpus.HistoryRow> history = corpus.history(apps, 1000, NOW);
+        List<SyntheticCorpus.HistoryRow> otherHistory = other.history(otherApps, 1000, NOW);
+        assertThat(history.stream().map(row -> row.record + row.query + row.timeStamp).collect(Collectors.toList()),
+                equalTo(otherHistory.stream().map(row -> row.record + row.query + row.timeStamp).collect(Collectors.toList())));
+
+        assertThat(ids(new SyntheticCorpus(8).apps(300, 2)), not(equalTo(ids(apps))));
+    }
+
+    @Test
+    public void testLauncherScale() {
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+
+        List<AppPojo> apps = corpus.apps(1000, 2);
+        assertThat(apps.size(), greaterThan(1200));
+        assertUniqueIds(apps);
+        assertThat(apps.stream().filter(app -> app.id.endsWith("/10")).count(), greaterThan(200L));
+
+        List<ContactsPojo> contacts = corpus.contacts(20000);
+        assertThat(contacts.size(), greaterThan(20000));
+        assertUniqueIds(contacts);
+        assertThat(contacts.stream().map(ContactsPojo::getContactId).distinct().count(), equalTo(20000L));
+
+        List<ShortcutPojo> shortcuts = corpus.shortcuts(apps, 3000);
+        assertThat(shortcuts.size(), equalTo(3000));
+        assertUniqueIds(shortcuts);
+        assertThat(shortcuts.stream().allMatch(ShortcutPojo::isOreoShortcut), equalTo(true));
+
+        Map<String, String> tags = corpus.tags(apps, 25);
+        SyntheticCorpus.applyTags(apps, tags);
+        assertThat(apps.stream().filter(app -> !app.getTags().isEmpty()).count(), equalTo((long) tags.size()));
+
+        List<SyntheticCorpus.HistoryRow> history = corpus.history(apps, 100_000, NOW);
+        assertThat(history.size(), equalTo(100_000));
+        for (int i = 1; i < history.size(); i++) {
+            assertThat(history.get(i).timeStamp, greaterThanOrEqualTo(history.get(i - 1).timeStamp));
+        }
+        assertThat(history.get(history.size() - 1).timeStamp, lessThanOrEqualTo(NOW));
+
+        List<ValuedHistoryRecord> frequency = SyntheticCorpus.frequency(history, 50);
+        assertThat(frequency.size(), equalTo(50));
+        // power law: most used record is used far more often than the 50th one
+        assertThat(frequency.get(0).value, greaterThan(3 * frequency.get(49).value));
+
+        List<ValuedHistoryRecord> recency = SyntheticCorpus.recency(history, 50);
+        assertThat(recency.get(0).record, equalTo(history.get(history.size() - 1).record));
+        assertThat(recency.stream().map(record -> record.record).distinct().count(), equalTo(50L));
+    }
+
+    @Test
+    public void testContactNamesUseAllScripts() {
+        Set<Character.UnicodeScript> scripts = new HashSet<>();
+        boolean accented = false;
+        boolean emoji = false;
+        for (ContactsPojo contact : new SyntheticCorpus(42).contacts(2000)) {
+            for (int codePoint : contact.getName().codePoints().toArray()) {
+                scripts.add(Character.UnicodeScript.of(codePoint));
+                accented |= codePoint > 0x7f && Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.LATIN;
+                emoji |= Character.getType(codePoint) == Character.OTHER_SYMBOL;
+            }
+        }
+
+        assertThat(scripts.contains(Character.UnicodeScript.LATIN), equalTo(true));
+        assertThat(scripts.contains(Character.UnicodeScript.HAN), equalTo(true));
+        assertThat(scripts.contains(Character.UnicodeScript.HANGUL), equalTo(true));
+        assertThat(accented, equalTo(true));
+        assertThat(emoji, equalTo(true));
+    }
+
+    private static void assertUniqueIds(List<? extends Pojo> pojos) {
+        assertThat(ids(pojos).stream().distinct().count(), equalTo((long) pojos.size()));
+    }
+
+    private static List<String> ids(List<? extends Pojo> pojos) {
+        return pojos.stream().map(pojo -> pojo.id).collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<? extends Pojo> pojos) {
+        return pojos.stream().map(Pojo::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,234 @@
+package fr.neamar.kiss.testing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic name distributions close to what a launcher sees on a real device.
+ * <p>
+ * Pure Java on purpose: it is shared by the unit tests and the JMH benchmarks of the
+ * {@code benchmark} module, which compiles this file without the Android SDK.
+ * All methods only depend on the given {@link Random}, same seed gives same names.
+ */
+public final class SyntheticNames {
+
+    public enum Script {
+        LATIN, ACCENTED, CJK, HANGUL, EMOJI, MIXED
+    }
+
+    private static final String[] APP_WORDS = {
+            "Google", "Maps", "Photos", "Chrome", "Gmail", "Calendar", "Camera", "Clock", "Settings",
+            "Files", "Music", "Player", "Samsung", "Notes", "Galaxy", "Store", "Wallet", "Pay", "Health",
+            "Fit", "Spotify", "Netflix", "YouTube", "Messenger", "WhatsApp", "Telegram", "Signal", "Slack",
+            "Teams", "Outlook", "Word", "Excel", "Drive", "Docs", "Sheets", "Keep", "Translate", "Weather",
+            "Calculator", "Contacts", "Phone", "Messages", "Browser", "Firefox", "Authenticator", "Banking",
+            "Shop", "Delivery", "Radio", "Podcast", "KakaoTalk", "Naver", "Coupang", "Toss", "Work", "Pro",
+            "Lite", "Go", "Studio", "Manager", "Reader", "Scanner", "Editor", "Remote", "Home", "TV"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Ben", "Charlotte", "David", "Emma", "Gabriel", "Hannah", "Isaac", "Julia", "Kevin",
+            "Laura", "Marc", "Nina", "Oliver", "Paul", "Quentin", "Rachel", "Sam", "Thomas", "Victor",
+            "William", "Zoe", "John", "Mary", "Peter", "Sarah", "Lucas", "Mia", "Noah", "Eva"
+    };
+    private static final String[] LAST_NAMES = {
+            "Martin", "Smith", "Johnson", "Brown", "Miller", "Wilson", "Taylor", "Anderson", "Thomas",
+            "Moore", "Jackson", "White", "Harris", "Clark", "Lewis", "Walker", "Young", "King", "Wright",
+            "Scott", "Green", "Baker", "Adams", "Nelson", "Hill", "Campbell", "Mitchell", "Roberts"
+    };
+    private static final String[] ACCENTED_FIRST_NAMES = {
+            "Chloé", "Élodie", "François", "Hélène", "Jürgen", "Léa", "Nicolás", "Zoë", "Søren", "Łukasz",
+            "José", "Inès", "Björn", "Agnès", "Raphaël", "Zoé", "Ångström", "Małgorzata", "Dvořák", "Renée"
+    };
+    private static final String[] ACCENTED_LAST_NAMES = {
+            "Müller", "García", "Nowak", "Dubois", "Björk", "Lefèvre", "Gonçalves", "Šimůnek", "Østergård",
+            "Pérez", "Håkansson", "Szczęsny", "Leroÿ", "Fernández", "Çelik", "Jäger", "Crépin", "Żak"
+    };
+    private static final String[] CJK_FAMILY_NAMES = {
+            "王", "李", "张", "刘", "陈", "杨", "黄", "赵", "佐藤", "鈴木", "高橋", "田中", "渡辺"
+    };
+    private static final String[] CJK_GIVEN_NAMES = {
+            "伟", "芳", "娜", "秀英", "敏", "静", "丽", "强", "磊", "花子", "太郎", "美咲", "翔太", "陽菜"
+    };
+    private static final String[] HANGUL_FAMILY_NAMES = {
+            "김", "이", "박", "최", "정", "강", "조", "윤", "장", "임", "한", "오", "서", "신"
+    };
+    private static final String[] HANGUL_GIVEN_NAMES = {
+            "민준", "서연", "지훈", "하은", "도윤", "서준", "지우", "예준", "수아", "시우", "지민", "유진", "현우"
+    };
+    private static final String[] HANGUL_SUFFIXES = {
+            "", "", "", " 팀장", " 과장", " 선생님", " (회사)", " 엄마", " 아빠"
+    };
+    private static final String[] EMOJIS = {
+            "❤️", "⭐", "🏠", "💼", "🎉", "👶", "🐶", "☕", "🔥", "😀"
+    };
+    private static final String[] TAGS = {
+            "work", "social", "games", "music", "travel", "finance", "photo", "family", "dev", "news",
+            "shopping", "health", "업무", "사진", "가족", "仕事", "常用"
+    };
+    private static final String[] LOCALIZED_APP_NAMES = {
+            "카카오톡", "네이버 지도", "배달의민족", "당근", "토스", "쿠팡", "멜론", "카카오맵", "삼성 인터넷", "갤러리",
+            "微信", "支付宝", "淘宝", "抖音", "高德地图", "LINE マンガ", "メルカリ", "楽天市場",
+            "Météo", "Musée", "Tâches", "Réglages", "Santé", "Agenda Éducation", "Übersetzer", "Configuración"
+    };
+    private static final String[] SHORTCUT_LABELS = {
+            "New message", "New chat", "Compose", "Scan QR code", "Take photo", "Record video", "Search",
+            "Navigate home", "Navigate to work", "New event", "Set alarm", "Start timer", "Pay", "Send money",
+            "새 메시지", "QR 스캔", "송금", "길찾기", "Nouveau message", "Créer un événement", "Überweisung", "新しいメモ"
+    };
+    private static final String[] NICKNAMES = {
+            "Mom", "Dad", "Boss", "Honey", "Doc", "Bro", "엄마", "아빠", "여보", "자기", "Chéri", "Mamie", "❤️ Love", "⭐ VIP"
+    };
+    private static final String[] VENDORS = {
+            "google", "samsung", "android", "microsoft", "kakao", "naver", "nhn", "coupang", "viva",
+            "spotify", "netflix", "whatsapp", "telegram", "mozilla", "acme", "example", "corp"
+    };
+
+    private SyntheticNames() {
+    }
+
+    public static List<String> appNames(int count, Random random) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(appName(random));
+        }
+        return names;
+    }
+
+    /**
+     * @return name made of one to three common app words, e.g. "Google Maps Lite"
+     */
+    public static String appName(Random random) {
+        int words = 1 + random.nextInt(3);
+        StringBuilder name = new StringBuilder(pick(APP_WORDS, random));
+        for (int w = 1; w < words; w++) {
+            name.append(' ').append(pick(APP_WORDS, random));
+        }
+        return name.toString();
+    }
+
+    /**
+     * @return launcher label as found on a korean/international device: mostly english
+     * app names, some localized ones (Hangul, CJK, accented)
+     */
+    public static String appLabel(Random random) {
+        if (random.nextInt(100) < 15) {
+            return pick(LOCALIZED_APP_NAMES, random);
+        }
+        return appName(random);
+    }
+
+    /**
+     * @return plausible package name for given label, e.g. "com.kakao.maps3"
+     */
+    public static String packageName(String label, int index, Random random) {
+        StringBuilder name = new StringBuilder();
+        label.codePoints()
+                .filter(c -> c < 128 && Character.isLetterOrDigit(c))
+                .forEach(c -> name.appendCodePoint(Character.toLowerCase(c)));
+        if (name.length() == 0) {
+            name.append("app");
+        }
+        // index keeps package names unique, labels are often reused
+        return "com." + pick(VENDORS, random) + "." + name + index;
+    }
+
+    public static List<String> contactNames(int count, Script script, Random random) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(contactName(script, random));
+        }
+        return names;
+    }
+
+    public static String contactName(Script script, Random random) {
+        switch (script) {
+            case LATIN:
+                return pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random);
+            case ACCENTED:
+                return pick(ACCENTED_FIRST_NAMES, random) + " " + pick(ACCENTED_LAST_NAMES, random);
+            case CJK:
+                return pick(CJK_FAMILY_NAMES, random) + pick(CJK_GIVEN_NAMES, random);
+            case HANGUL:
+                return pick(HANGUL_FAMILY_NAMES, random) + pick(HANGUL_GIVEN_NAMES, random) + pick(HANGUL_SUFFIXES, random);
+            case EMOJI:
+                return contactName(random.nextBoolean() ? Script.LATIN : Script.HANGUL, random) + " " + pick(EMOJIS, random);
+            default:
+                // distribution of an address book with mostly latin names
+                int draw = random.nextInt(100);
+                if (draw < 45) {
+                    return contactName(Script.LATIN, random);
+                } else if (draw < 65) {
+                    return contactName(Script.ACCENTED, random);
+                } else if (draw < 75) {
+                    return contactName(Script.CJK, random);
+                } else if (draw < 93) {
+                    return contactName(Script.HANGUL, random);
+                }
+                return contactName(Script.EMOJI, random);
+        }
+    }
+
+    public static String nickname(Random random) {
+        return pick(NICKNAMES, random);
+    }
+
+    /**
+     * @return short label of an app shortcut, e.g. "New message"
+     */
+    public static String shortcutLabel(Random random) {
+        return pick(SHORTCUT_LABELS, random);
+    }
+
+    /**
+     * @return tags of {@code count} items, see {@link #tags(Random)}
+     */
+    public static List<String> tags(int count, Random random) {
+        List<String> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tags.add(tags(random));
+        }
+        return tags;
+    }
+
+    /**
+     * @return one to three tags of an item, space separated as stored by the tags handler
+     */
+    public static String tags(Random random) {
+        int tagCount = 1 + random.nextInt(3);
+        StringBuilder itemTags = new StringBuilder(pick(TAGS, random));
+        for (int t = 1; t < tagCount; t++) {
+            itemTags.append(' ').append(pick(TAGS, random));
+        }
+        return itemTags.toString();
+    }
+
+    public static List<String> phoneNumbers(int count, Random random) {
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(phoneNumber(random));
+        }
+        return numbers;
+    }
+
+    /**
+     * @return phone number in one of the formats found in address books (french, US, korean)
+     */
+    public static String phoneNumber(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return String.format(Locale.ROOT, "+33 6 %02d %02d %02d %02d", random.nextInt(100), random.nextInt(100), random.nextInt(100), random.nextInt(100));
+            case 1:
+                return String.format(Locale.ROOT, "(%03d) %03d-%04d", 200 + random.nextInt(800), random.nextInt(1000), random.nextInt(10000));
+            case 2:
+                return String.format(Locale.ROOT, "010-%04d-%04d", random.nextInt(10000), random.nextInt(10000));
+            default:
+                return String.format(Locale.ROOT, "+8210%08d", random.nextInt(100000000));
+        }
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
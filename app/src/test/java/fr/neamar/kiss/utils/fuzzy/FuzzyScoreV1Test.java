@@ -5,6 +5,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.Random;
 import java.util.stream.Stream;
 
 import fr.neamar.kiss.normalizer.StringNormalizer;
@@ -83,4 +84,42 @@ class FuzzyScoreV1Test {
         MatchInfo match2  = fuzzyScore.match(testStringNormalized2.codePoints);
         assertThat(match2.score, equalTo(unmatched_letter_penalty * 5));
     }
+
+    @Test
+    public void testSignatureOnlyRejectsTextsWithoutMatch() {
+        int[] alphabet = {'a', 'b', 'k', 'z', 'A', 'K', '0', '7', ' ', 'é', 'É', 'ß', '한', '김', '王', 0x1F600};
+        Random random = new Random(4321);
+        int rejected = 0;
+
+        for (int i = 0; i < 2000; i++) {
+            int[] pattern = randomCodepoints(random, alphabet, 1 + random.nextInt(4));
+            FuzzyScore fuzzyScore = new FuzzyScoreV1(pattern, true);
+
+            for (int j = 0; j < 50; j++) {
+                int[] text = randomCodepoints(random, alphabet, random.nextInt(20));
+                StringNormalizer.Result normalized = StringNormalizer.normalizeWithResult(new String(text, 0, text.length), false);
+                MatchInfo expected = fuzzyScore.match(normalized.codePoints);
+                boolean expectedMatch = expected.match;
+                int expectedScore = expected.score;
+                MatchInfo actual = fuzzyScore.match(normalized);
+                assertThat(actual.match, equalTo(expectedMatch));
+                if (expectedMatch) {
+                    assertThat(actual.score, equalTo(expectedScore));
+                }
+                if (!normalized.mayContainAll(StringNormalizer.signature(pattern))) {
+                    rejected++;
+                }
+            }
+        }
+
+        assertThat(rejected > 10000, equalTo(true));
+    }
+
+    private static int[] randomCodepoints(Random random, int[] alphabet, int length) {
+        int[] codepoints = new int[length];
+        for (int i = 0; i < length; i++) {
+            codepoints[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return codepoints;
+    }
 }
@@ -8,6 +8,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.Random;
 import java.util.stream.Stream;
 
 import fr.neamar.kiss.normalizer.StringNormalizer;
@@ -98,4 +99,75 @@ class FuzzyScoreV2Test {
         assertThat(match.match, equalTo(false));
         assertThat(match.score, equalTo(0));
     }
+
+    @Test
+    public void testSameResultsAsReferenceImplementation() {
+        // few distinct letters with repetitions, case changes and separators to get many alternative matches
+        int[] alphabet = {'a', 'a', 'b', 'c', 'e', 'A', 'B', ' ', ' ', '-', 'é', '한', 0x1F600};
+        Random random = new Random(1234);
+        int matches = 0;
+
+        for (int i = 0; i < 2000; i++) {
+            int[] pattern = randomCodepoints(random, alphabet, 1 + random.nextInt(8));
+            FuzzyScore fuzzyScore = new FuzzyScoreV2(pattern, true);
+            FuzzyScore reference = new FuzzyScoreV2Reference(pattern, true);
+
+            // same instances are reused for every text, as in KISS providers
+            for (int j = 0; j < 50; j++) {
+                int[] text = randomCodepoints(random, alphabet, random.nextInt(40));
+                MatchInfo expected = reference.match(text);
+                MatchInfo actual = fuzzyScore.match(text);
+                assertThat(actual.match, equalTo(expected.match));
+                assertThat(actual.score, equalTo(expected.score));
+                if (expected.match) {
+                    assertThat(actual.getMatchedIndices(), equalTo(expected.getMatchedIndices()));
+                    matches++;
+                }
+
+                String textString = new String(text, 0, text.length);
+                assertThat(fuzzyScore.match(textString).score, equalTo(reference.match(textString).score));
+            }
+        }
+
+        // make sure that corpus isn't trivial
+        assertThat(matches > 10000, equalTo(true));
+    }
+
+    @Test
+    public void testSignatureOnlyRejectsTextsWithoutMatch() {
+        int[] alphabet = {'a', 'b', 'k', 'z', 'A', 'K', '0', '7', ' ', 'é', 'É', 'ß', '한', '김', '王', 0x1F600};
+        Random random = new Random(4321);
+        int rejected = 0;
+
+        for (int i = 0; i < 2000; i++) {
+            int[] pattern = randomCodepoints(random, alphabet, 1 + random.nextInt(4));
+            FuzzyScore fuzzyScore = new FuzzyScoreV2(pattern, true);
+
+            for (int j = 0; j < 50; j++) {
+                int[] text = randomCodepoints(random, alphabet, random.nextInt(20));
+                StringNormalizer.Result normalized = StringNormalizer.normalizeWithResult(new String(text, 0, text.length), false);
+                MatchInfo expected = fuzzyScore.match(normalized.codePoints);
+                boolean expectedMatch = expected.match;
+                int expectedScore = expected.score;
+                MatchInfo actual = fuzzyScore.match(normalized);
+                assertThat(actual.match, equalTo(expectedMatch));
+                if (expectedMatch) {
+                    assertThat(actual.score, equalTo(expectedScore));
+                }
+                if (!normalized.mayContainAll(StringNormalizer.signature(pattern))) {
+                    rejected++;
+                }
+            }
+        }
+
+        assertThat(rejected > 10000, equalTo(true));
+    }
+
+    private static int[] randomCodepoints(Random random, int[] alphabet, int length) {
+        int[] codepoints = new int[length];
+        for (int i = 0; i < length; i++) {
+            codepoints[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return codepoints;
+    }
 }
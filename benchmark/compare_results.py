@@ -0,0 +1,60 @@
+#!/usr/bin/env python3
+"""
+JMH 벤치마크 결과 비교
+
+두 커밋에서 생성한 JSON 결과(benchmark/build/results/jmh/results.json)를 비교하여
+벤치마크별 점수 변화를 출력합니다. 점수는 평균 시간이므로 낮을수록 좋습니다.
+
+사용법:
+    python3 benchmark/compare_results.py <기준_results.json> <새_results.json> [--threshold 5]
+
+threshold(%)보다 느려진 벤치마크가 있으면 종료 코드 1을 반환합니다.
+"""
+
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path, encoding='utf-8') as f:
+        results = {}
+        for entry in json.load(f):
+            params = ','.join(f'{k}={v}' for k, v in sorted(entry.get('params', {}).items()))
+            name = entry['benchmark'].rsplit('.', 2)[-2:]
+            key = '.'.join(name) + (f' [{params}]' if params else '')
+            metric = entry['primaryMetric']
+            results[key] = (metric['score'], metric['scoreError'], metric['scoreUnit'])
+        return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description='JMH 결과 비교')
+    parser.add_argument('baseline')
+    parser.add_argument('current')
+    parser.add_argument('--threshold', type=float, default=5.0, help='회귀로 판단할 변화율(%%)')
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+
+    regressions = 0
+    print(f'{"benchmark":<80} {"baseline":>12} {"current":>12} {"change":>8}')
+    for key in sorted(baseline.keys() | current.keys()):
+        if key not in baseline or key not in current:
+            print(f'{key:<80} {"-" if key not in baseline else f"{baseline[key][0]:.3f}":>12} '
+                  f'{"-" if key not in current else f"{current[key][0]:.3f}":>12}')
+            continue
+        old, new = baseline[key][0], current[key][0]
+        change = (new - old) / old * 100 if old else 0.0
+        marker = ''
+        if change > args.threshold:
+            marker = ' <- 느려짐'
+            regressions += 1
+        print(f'{key:<80} {old:>12.3f} {new:>12.3f} {change:>+7.1f}%{marker}')
+
+    return 1 if regressions else 0
+
+
+if __name__ == '__main__':
+    sys.exit(main())
@@ -0,0 +1,48 @@
+package fr.neamar.kiss.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import fr.neamar.kiss.utils.calculator.Calculator;
+import fr.neamar.kiss.utils.calculator.Result;
+import fr.neamar.kiss.utils.calculator.ShuntingYard;
+import fr.neamar.kiss.utils.calculator.Tokenizer;
+
+/**
+ * Calculator provider pipeline for one keystroke: tokenize, convert to postfix, evaluate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CalculatorBenchmark {
+
+    @Param({"1+2", "12.5*(3-1)/4", "2^10-3%2", "((1+2)*(3+4))/(5-6)+7.25*8-(-3)", "youtube"})
+    public String expression;
+
+    @Benchmark
+    public Result<ArrayDeque<Tokenizer.Token>> tokenize() {
+        return Tokenizer.tokenize(expression);
+    }
+
+    @Benchmark
+    public Result<BigDecimal> evaluate() {
+        Result<ArrayDeque<Tokenizer.Token>> tokenized = Tokenizer.tokenize(expression);
+        if (tokenized.syntacticalError) {
+            return null;
+        }
+        Result<ArrayDeque<Tokenizer.Token>> postfixed = ShuntingYard.infixToPostfix(tokenized.result);
+        if (postfixed.syntacticalError) {
+            return null;
+        }
+        return Calculator.calculateExpression(postfixed.result);
+    }
+}
@@ -0,0 +1,64 @@
+package fr.neamar.kiss.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.testing.SyntheticNames;
+
+/**
+ * Queries and normalized texts for the benchmarks, names come from {@link SyntheticNames}.
+ */
+public final class Corpus {
+    static final long SEED = 42;
+
+    private Corpus() {
+    }
+
+    /**
+     * Queries as typed by a user: mostly the beginning of a word of an existing name,
+     * sometimes letters that won't match anything.
+     *
+     * @param names  corpus the queries are taken from
+     * @param length number of code points of each query
+     * @param count  number of queries
+     */
+    static List<String> queries(List<String> names, int length, int count, Random random) {
+        if (names.stream().noneMatch(name -> name.codePoints().filter(c -> !Character.isWhitespace(c)).count() >= length)) {
+            throw new IllegalArgumentException("No name with " + length + " letters in corpus");
+        }
+        List<String> queries = new ArrayList<>(count);
+        while (queries.size() < count) {
+            if (random.nextInt(5) == 0) {
+                queries.add(randomLetters(length, random));
+                continue;
+            }
+            String name = names.get(random.nextInt(names.size()));
+            int[] codePoints = name.codePoints().filter(c -> !Character.isWhitespace(c)).toArray();
+            if (codePoints.length < length) {
+                continue;
+            }
+            // start at a word boundary most of the time
+            int start = random.nextInt(3) == 0 ? random.nextInt(codePoints.length - length + 1) : 0;
+            queries.add(new String(codePoints, start, length));
+        }
+        return queries;
+    }
+
+    private static String randomLetters(int length, Random random) {
+        StringBuilder query = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            query.append((char) ('a' + random.nextInt(26)));
+        }
+        return query.toString();
+    }
+
+    static int[][] normalize(List<String> texts) {
+        int[][] normalized = new int[texts.size()][];
+        for (int i = 0; i < texts.size(); i++) {
+            normalized[i] = StringNormalizer.normalizeWithResult(texts.get(i), false).codePoints;
+        }
+        return normalized;
+    }
+}
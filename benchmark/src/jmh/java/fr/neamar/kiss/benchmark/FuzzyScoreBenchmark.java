@@ -0,0 +1,100 @@
+package fr.neamar.kiss.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.testing.SyntheticNames;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScoreV1;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScoreV2;
+
+/**
+ * One keystroke of a provider: score a query against every normalized name of a corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FuzzyScoreBenchmark {
+    private static final int QUERY_COUNT = 64;
+
+    @Param({"v1", "v2"})
+    public String scorer;
+
+    @Param({"1", "2", "3", "5", "7", "10"})
+    public int queryLength;
+
+    /**
+     * apps: 500 app names, contacts: 5000 contact names of all scripts, tags: tags of 500 items
+     */
+    @Param({"apps", "contacts", "tags"})
+    public String corpus;
+
+    private int[][] texts;
+    private StringNormalizer.Result[] normalizedTexts;
+    private int[][] queries;
+    private int nextQuery = 0;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(Corpus.SEED);
+        List<String> names;
+        switch (corpus) {
+            case "apps":
+                names = SyntheticNames.appNames(500, random);
+                break;
+            case "contacts":
+                names = SyntheticNames.contactNames(5000, SyntheticNames.Script.MIXED, random);
+                break;
+            default:
+                names = SyntheticNames.tags(500, random);
+                break;
+        }
+        normalizedTexts = new StringNormalizer.Result[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            normalizedTexts[i] = StringNormalizer.normalizeWithResult(names.get(i), false);
+        }
+        texts = Corpus.normalize(names);
+        queries = Corpus.normalize(Corpus.queries(names, queryLength, QUERY_COUNT, random));
+    }
+
+    @Benchmark
+    public int matchCorpus() {
+        int[] query = queries[nextQuery++ % QUERY_COUNT];
+        FuzzyScore fuzzyScore = "v2".equals(scorer) ? new FuzzyScoreV2(query, false) : new FuzzyScoreV1(query, false);
+        int matches = 0;
+        for (int[] text : texts) {
+            if (fuzzyScore.match(text).match) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Same as {@link #matchCorpus()}, texts without all letters of the query are rejected by
+     * their signature before scoring, as providers do
+     */
+    @Benchmark
+    public int matchCorpusWithSignature() {
+        int[] query = queries[nextQuery++ % QUERY_COUNT];
+        FuzzyScore fuzzyScore = "v2".equals(scorer) ? new FuzzyScoreV2(query, false) : new FuzzyScoreV1(query, false);
+        int matches = 0;
+        for (StringNormalizer.Result text : normalizedTexts) {
+            if (fuzzyScore.match(text).match) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
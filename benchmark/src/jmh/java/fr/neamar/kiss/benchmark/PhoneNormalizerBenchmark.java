@@ -0,0 +1,40 @@
+package fr.neamar.kiss.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import fr.neamar.kiss.normalizer.PhoneNormalizer;
+import fr.neamar.kiss.testing.SyntheticNames;
+
+/**
+ * Simplification of phone numbers in international and local formats, as done when contacts are loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PhoneNormalizerBenchmark {
+    private List<String> phoneNumbers;
+
+    @Setup
+    public void setUp() {
+        phoneNumbers = SyntheticNames.phoneNumbers(1000, new Random(Corpus.SEED));
+    }
+
+    @Benchmark
+    public int simplifyPhoneNumbers() {
+        int length = 0;
+        for (String phoneNumber : phoneNumbers) {
+            length += PhoneNormalizer.simplifyPhoneNumber(phoneNumber).length();
+        }
+        return length;
+    }
+}
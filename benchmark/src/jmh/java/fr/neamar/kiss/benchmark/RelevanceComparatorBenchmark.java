@@ -0,0 +1,67 @@
+package fr.neamar.kiss.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.pojo.RelevanceComparator;
+import fr.neamar.kiss.pojo.ScoredPojo;
+import fr.neamar.kiss.searcher.TopKCollector;
+import fr.neamar.kiss.testing.SyntheticNames;
+
+/**
+ * Ranking of search hits: full sort versus the bounded collector used by searchers.
+ * Relevance has few distinct values, so many comparisons fall back to names.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RelevanceComparatorBenchmark {
+    private static final int MAX_RESULTS = 50;
+
+    @Param({"100", "1000", "10000"})
+    public int hitCount;
+
+    private final RelevanceComparator comparator = new RelevanceComparator();
+    private ScoredPojo[] hits;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(Corpus.SEED);
+        List<String> names = SyntheticNames.contactNames(hitCount, SyntheticNames.Script.MIXED, random);
+        hits = new ScoredPojo[hitCount];
+        for (int i = 0; i < hitCount; i++) {
+            Pojo pojo = new Pojo("contact://" + i) {
+            };
+            pojo.setName(names.get(i));
+            hits[i] = new ScoredPojo(pojo, random.nextInt(40));
+        }
+    }
+
+    @Benchmark
+    public ScoredPojo[] sortAll() {
+        ScoredPojo[] sorted = hits.clone();
+        Arrays.sort(sorted, comparator);
+        return sorted;
+    }
+
+    @Benchmark
+    public List<ScoredPojo> collectTopK() {
+        TopKCollector<ScoredPojo> collector = new TopKCollector<>(MAX_RESULTS, comparator);
+        for (ScoredPojo hit : hits) {
+            collector.offer(hit);
+        }
+        return collector.drainAscending();
+    }
+}
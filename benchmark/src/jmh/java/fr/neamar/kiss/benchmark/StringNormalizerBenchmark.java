@@ -0,0 +1,56 @@
+package fr.neamar.kiss.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.testing.SyntheticNames;
+
+/**
+ * Normalization of names as done when providers load their data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StringNormalizerBenchmark {
+    private static final int NAME_COUNT = 1000;
+
+    @Param({"LATIN", "ACCENTED", "CJK", "HANGUL", "EMOJI", "MIXED"})
+    public SyntheticNames.Script script;
+
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(Corpus.SEED);
+        names = SyntheticNames.contactNames(NAME_COUNT, script, random);
+    }
+
+    @Benchmark
+    public int normalizeNames() {
+        int length = 0;
+        for (String name : names) {
+            length += StringNormalizer.normalizeWithResult(name, false).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int normalizeNamesMakeLowercase() {
+        int length = 0;
+        for (String name : names) {
+            length += StringNormalizer.normalizeWithResult(name, true).length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,138 @@
+package fr.neamar.kiss.dataprovider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import fr.neamar.kiss.normalizer.PhoneNormalizer;
+import fr.neamar.kiss.normalizer.StringNormalizer;
+import fr.neamar.kiss.pojo.Pojo;
+import fr.neamar.kiss.testing.SyntheticNames;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScore;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScoreV1;
+import fr.neamar.kiss.utils.fuzzy.FuzzyScoreV2;
+import fr.neamar.kiss.utils.fuzzy.MatchInfo;
+
+/**
+ * Search of a large contact list, reading fields from the pojos or from a {@link SearchArena},
+ * scanning all of them or only the ones selected by its {@link CodePointIndex}.
+ * In this package to use the package private arena.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchArenaBenchmark {
+    private static final int QUERY_COUNT = 64;
+
+    @Param({"v1", "v2"})
+    public String scorer;
+
+    @Param({"1", "3", "5"})
+    public int queryLength;
+
+    @Param({"20000"})
+    public int contactCount;
+
+    private SearchCandidates<Contact> pojos;
+    private SearchArena<Contact> arena;
+    private int[][] queries;
+    private int nextQuery = 0;
+
+    /**
+     * Contact with the fields searched on every pojo: name, nickname (mostly missing) and phone
+     */
+    static final class Contact extends Pojo {
+        StringNormalizer.Result normalizedNickname;
+        StringNormalizer.Result normalizedPhone;
+
+        Contact(String id) {
+            super(id);
+        }
+    }
+
+    private static final SearchableFields<Contact> FIELDS = new SearchableFields<Contact>() {
+        @Override
+        public int count() {
+            return 3;
+        }
+
+        @Override
+        public StringNormalizer.Result get(Contact pojo, int field) {
+            switch (field) {
+                case 0:
+                    return pojo.normalizedName;
+                case 1:
+                    return pojo.normalizedNickname;
+                default:
+                    return pojo.normalizedPhone;
+            }
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> names = SyntheticNames.contactNames(contactCount, SyntheticNames.Script.MIXED, random);
+        List<Contact> contacts = new ArrayList<>(contactCount);
+        for (int i = 0; i < contactCount; i++) {
+            Contact contact = new Contact("contact://" + i);
+            contact.setName(names.get(i));
+            if (random.nextInt(10) == 0) {
+                contact.normalizedNickname = StringNormalizer.normalizeWithResult(SyntheticNames.nickname(random), false);
+            }
+            contact.normalizedPhone = PhoneNormalizer.simplifyPhoneNumber(SyntheticNames.phoneNumber(random));
+            contacts.add(contact);
+        }
+        pojos = SearchCandidates.of(contacts, FIELDS);
+        arena = SearchArena.build(contacts, FIELDS, 1);
+
+        queries = new int[QUERY_COUNT][];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            int[] name = contacts.get(random.nextInt(contactCount)).normalizedName.codePoints;
+            int length = Math.min(name.length, queryLength);
+            queries[i] = Arrays.copyOf(name, length);
+        }
+    }
+
+    @Benchmark
+    public int scanPojos() {
+        return scan(pojos, queries[nextQuery++ % QUERY_COUNT]);
+    }
+
+    @Benchmark
+    public int scanArena() {
+        return scan(arena, queries[nextQuery++ % QUERY_COUNT]);
+    }
+
+    @Benchmark
+    public int scanArenaSelected() {
+        int[] query = queries[nextQuery++ % QUERY_COUNT];
+        return scan(arena.select(query), query);
+    }
+
+    private int scan(SearchCandidates<Contact> candidates, int[] query) {
+        FuzzyScore fuzzyScore = "v2".equals(scorer) ? new FuzzyScoreV2(query, false) : new FuzzyScoreV1(query, false);
+        int matches = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            for (int field = 0; field < FIELDS.count(); field++) {
+                MatchInfo matchInfo = candidates.match(fuzzyScore, i, field);
+                if (matchInfo != null && matchInfo.match) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+}
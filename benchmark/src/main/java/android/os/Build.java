@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android class, only provides what benchmarked app sources use.
+ */
+public class Build {
+    public static class VERSION {
+        // minSdkVersion of the app
+        public static final int SDK_INT = 33;
+    }
+
+    public static class VERSION_CODES {
+        public static final int N = 24;
+    }
+}
@@ -0,0 +1,14 @@
+package android.util;
+
+/**
+ * JVM stand-in for the Android class, only provides what benchmarked app sources use.
+ */
+public class Pair<F, S> {
+    public final F first;
+    public final S second;
+
+    public Pair(F first, S second) {
+        this.first = first;
+        this.second = second;
+    }
+}